@@ -0,0 +1,202 @@
+package com.jobautofill.config;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ollama generation options per kind of call.
+ * An intent profile only needs the settings that differ from {@code defaults}.
+ */
+@ConfigurationProperties(prefix = "autofill.generation")
+public class GenerationProperties {
+
+    private Profile defaults = new Profile();
+
+    private Map<IntentType, Profile> intents = new EnumMap<>(IntentType.class);
+
+    private Profile extraction = new Profile();
+
+    // Multi-field prompts get at least this many tokens per field
+    private int batchNumPredictPerField = 128;
+
+    // Allowed num_ctx values, ascending; empty keeps the profile's num_ctx
+    private List<Integer> numCtxBuckets = new ArrayList<>();
+
+    /**
+     * Options for a single-field call, {@code intentType} may be null.
+     */
+    public Map<String, Object> optionsFor(IntentType intentType) {
+        Profile profile = intentType != null ? intents.get(intentType) : null;
+        return (profile != null ? profile.over(defaults) : defaults).toOptions();
+    }
+
+    public Map<String, Object> extractionOptions() {
+        return extraction.over(defaults).toOptions();
+    }
+
+    /**
+     * Options for a multi-field call. num_predict is the sum of the packed fields' own
+     * num_predict, each at least {@code batchNumPredictPerField}, so a long-form field
+     * packed with short ones still has room for its answer.
+     */
+    public Map<String, Object> batchOptions(Collection<IntentType> fieldIntents) {
+        int numPredict = 0;
+        for (IntentType intentType : fieldIntents) {
+            Object fieldNumPredict = optionsFor(intentType).get("num_predict");
+            numPredict += Math.max(batchNumPredictPerField,
+                    fieldNumPredict instanceof Integer tokens ? tokens : 0);
+        }
+
+        Map<String, Object> options = defaults.toOptions();
+        options.put("num_predict", Math.max(batchNumPredictPerField, numPredict));
+        return options;
+    }
+
+    /**
+     * Sets num_ctx to the smallest bucket that holds the prompt plus {@code num_predict}.
+     * Prompts larger than every bucket get the largest one.
+     */
+    public Map<String, Object> sizeContext(Map<String, Object> options, int promptTokens) {
+        if (numCtxBuckets.isEmpty()) {
+            return options;
+        }
+        Object numPredict = options.get("num_predict");
+        int needed = promptTokens + (numPredict instanceof Integer tokens ? tokens : 0);
+        int numCtx = numCtxBuckets.get(numCtxBuckets.size() - 1);
+        for (int bucket : numCtxBuckets) {
+            if (bucket >= needed) {
+                numCtx = bucket;
+                break;
+            }
+        }
+
+        Map<String, Object> sized = new LinkedHashMap<>(options);
+        sized.put("num_ctx", numCtx);
+        return sized;
+    }
+
+    /**
+     * Context size to load the model with, the one most calls will ask for.
+     */
+    public Integer preloadNumCtx() {
+        return numCtxBuckets.isEmpty() ? defaults.getNumCtx() : numCtxBuckets.get(0);
+    }
+
+    public Profile getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Profile defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<IntentType, Profile> getIntents() {
+        return intents;
+    }
+
+    public void setIntents(Map<IntentType, Profile> intents) {
+        this.intents = intents;
+    }
+
+    public Profile getExtraction() {
+        return extraction;
+    }
+
+    public void setExtraction(Profile extraction) {
+        this.extraction = extraction;
+    }
+
+    public int getBatchNumPredictPerField() {
+        return batchNumPredictPerField;
+    }
+
+    public void setBatchNumPredictPerField(int batchNumPredictPerField) {
+        this.batchNumPredictPerField = batchNumPredictPerField;
+    }
+
+    public List<Integer> getNumCtxBuckets() {
+        return numCtxBuckets;
+    }
+
+    public void setNumCtxBuckets(List<Integer> numCtxBuckets) {
+        List<Integer> sorted = new ArrayList<>(numCtxBuckets);
+        Collections.sort(sorted);
+        this.numCtxBuckets = sorted;
+    }
+
+    /**
+     * Subset of Ollama's {@code options}. Unset values are not sent.
+     */
+    public static class Profile {
+        private Integer numPredict;
+        private Integer numCtx;
+        private Double temperature;
+        private List<String> stop;
+
+        Profile over(Profile base) {
+            Profile merged = new Profile();
+            merged.numPredict = numPredict != null ? numPredict : base.numPredict;
+            merged.numCtx = numCtx != null ? numCtx : base.numCtx;
+            merged.temperature = temperature != null ? temperature : base.temperature;
+            merged.stop = stop != null ? stop : base.stop;
+            return merged;
+        }
+
+        Map<String, Object> toOptions() {
+            Map<String, Object> options = new LinkedHashMap<>();
+            if (numPredict != null) {
+                options.put("num_predict", numPredict);
+            }
+            if (numCtx != null) {
+                options.put("num_ctx", numCtx);
+            }
+            if (temperature != null) {
+                options.put("temperature", temperature);
+            }
+            if (stop != null && !stop.isEmpty()) {
+                options.put("stop", stop);
+            }
+            return options;
+        }
+
+        public Integer getNumPredict() {
+            return numPredict;
+        }
+
+        public void setNumPredict(Integer numPredict) {
+            this.numPredict = numPredict;
+        }
+
+        public Integer getNumCtx() {
+            return numCtx;
+        }
+
+        public void setNumCtx(Integer numCtx) {
+            this.numCtx = numCtx;
+        }
+
+        public Double getTemperature() {
+            return temperature;
+        }
+
+        public void setTemperature(Double temperature) {
+            this.temperature = temperature;
+        }
+
+        public List<String> getStop() {
+            return stop;
+        }
+
+        public void setStop(List<String> stop) {
+            this.stop = stop;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.jobautofill.config;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Which Ollama model answers which kind of field.
+ * Intents without an entry, and extraction without {@code extraction-model}, use the
+ * default {@code ollama.model}.
+ */
+@ConfigurationProperties(prefix = "autofill.routing")
+public class ModelRoutingProperties {
+
+    private Map<IntentType, String> intents = new EnumMap<>(IntentType.class);
+
+    private String extractionModel;
+
+    public Map<IntentType, String> getIntents() {
+        return intents;
+    }
+
+    public void setIntents(Map<IntentType, String> intents) {
+        this.intents = intents;
+    }
+
+    public String getExtractionModel() {
+        return extractionModel;
+    }
+
+    public void setExtractionModel(String extractionModel) {
+        this.extractionModel = extractionModel;
+    }
+}
@@ -1,24 +1,46 @@
 package com.jobautofill.config;
 
+import com.jobautofill.service.OllamaEndpointPool;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.util.Arrays;
+import java.util.List;
+
 
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ModelRoutingProperties.class, GenerationProperties.class, PromptBudgetProperties.class})
 public class OllamaConfig {
 
     @Value("${ollama.base-url}")
-    private String ollamaBaseUrl;
+    private String ollamaBaseUrl;  // One URL or a comma-separated list of Ollama instances
 
     @Value("${ollama.timeout}")
     private int timeout;
 
+    @Value("${ollama.endpoints.prefer-loaded-model:true}")
+    private boolean preferLoadedModel;
+
+    @Value("${ollama.endpoints.eject-after-failures:3}")
+    private int ejectAfterFailures;
+
     @Bean
-    public WebClient ollamaWebClient() {
+    public OllamaEndpointPool ollamaEndpointPool() {
+        List<String> baseUrls = Arrays.stream(ollamaBaseUrl.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        return new OllamaEndpointPool(baseUrls, this::ollamaWebClient, preferLoadedModel, ejectAfterFailures);
+    }
+
+    private WebClient ollamaWebClient(String baseUrl) {
         return WebClient.builder()
-                .baseUrl(ollamaBaseUrl)
+                .baseUrl(baseUrl)
                 .codecs(configurer -> configurer
                         .defaultCodecs()
                         .maxInMemorySize(10 * 1024 * 1024))  // 10 MB buffer for large responses
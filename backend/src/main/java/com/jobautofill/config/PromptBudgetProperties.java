@@ -0,0 +1,39 @@
+package com.jobautofill.config;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Token budget for the resume context embedded in a field prompt.
+ * Resume sections are added most relevant first until the budget is reached.
+ */
+@ConfigurationProperties(prefix = "autofill.prompt.budget")
+public class PromptBudgetProperties {
+
+    private int defaultTokens = 1500;
+
+    private Map<IntentType, Integer> intents = new EnumMap<>(IntentType.class);
+
+    public int tokensFor(IntentType intentType) {
+        return intents.getOrDefault(intentType, defaultTokens);
+    }
+
+    public int getDefaultTokens() {
+        return defaultTokens;
+    }
+
+    public void setDefaultTokens(int defaultTokens) {
+        this.defaultTokens = defaultTokens;
+    }
+
+    public Map<IntentType, Integer> getIntents() {
+        return intents;
+    }
+
+    public void setIntents(Map<IntentType, Integer> intents) {
+        this.intents = intents;
+    }
+}
@@ -1,17 +1,23 @@
 package com.jobautofill.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.model.AutofillBatchEvent;
 import com.jobautofill.model.AutofillRequest;
 import com.jobautofill.model.AutofillResponse;
-import com.jobautofill.model.ResumeData;
-import com.jobautofill.model.StructuredResume;
+import com.jobautofill.model.AutofillStreamEvent;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.service.BatchAutofillService;
+import com.jobautofill.service.OllamaScheduler;
 import com.jobautofill.service.OllamaService;
+import com.jobautofill.storage.AutofillAnswerCache;
 import com.jobautofill.storage.ResumeStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,15 +29,18 @@ public class AutofillController {
     private static final Logger log = LoggerFactory.getLogger(AutofillController.class);
 
     private final OllamaService ollamaService;
+    private final BatchAutofillService batchAutofillService;
     private final ResumeStorage resumeStorage;
-    private final ObjectMapper objectMapper;
+    private final AutofillAnswerCache answerCache;
 
-    public AutofillController(OllamaService ollamaService, 
+    public AutofillController(OllamaService ollamaService,
+                              BatchAutofillService batchAutofillService,
                               ResumeStorage resumeStorage,
-                              ObjectMapper objectMapper) {
+                              AutofillAnswerCache answerCache) {
         this.ollamaService = ollamaService;
+        this.batchAutofillService = batchAutofillService;
         this.resumeStorage = resumeStorage;
-        this.objectMapper = objectMapper;
+        this.answerCache = answerCache;
     }
 
     /**
@@ -39,43 +48,58 @@ public class AutofillController {
      * Maps a form field to a value from the stored resume.
      */
     @PostMapping
-    public ResponseEntity<AutofillResponse> autofillField(@RequestBody AutofillRequest request) {
-        
-        try {
-            // Check if resume exists
-            if (!resumeStorage.hasResume()) {
-                AutofillResponse errorResponse = new AutofillResponse(
-                    "", 0.0, "No resume uploaded", null
-                );
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            }
-
-            // Check if extraction exists
-            ResumeData resumeData = resumeStorage.get();
-            String extractedJson = resumeData.getExtractedJson();
-            
-            if (extractedJson == null) {
-                AutofillResponse errorResponse = new AutofillResponse(
-                    "", 0.0, "Resume not extracted. Call POST /api/extract first.", null
-                );
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            }
-
-            // Parse structured resume
-            StructuredResume structuredResume = objectMapper.readValue(extractedJson, StructuredResume.class);
-
-            // Map field to resume value using Ollama
-            AutofillResponse response = ollamaService.mapFieldToResumeValue(request, structuredResume);
-
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            log.error("Autofill failed", e);
+    public Mono<ResponseEntity<AutofillResponse>> autofillField(@RequestBody AutofillRequest request) {
+
+        // Check if resume exists
+        if (!resumeStorage.hasResume()) {
+            AutofillResponse errorResponse = new AutofillResponse(
+                "", 0.0, "No resume uploaded", null
+            );
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        // Check if extraction exists
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+
+        if (snapshot == null) {
             AutofillResponse errorResponse = new AutofillResponse(
-                "", 0.0, "Autofill failed: " + e.getMessage(), null
+                "", 0.0, "Resume not extracted. Call POST /api/extract first.", null
             );
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        // Map field to resume value using Ollama (servlet thread is released while waiting)
+        return ollamaService.mapFieldToResumeValue(request, snapshot)
+                .map(ResponseEntity::ok)
+                .onErrorResume(OllamaScheduler.BusyException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(new AutofillResponse("", 0.0, e.getMessage(), "busy"))))
+                .onErrorResume(e -> {
+                    log.error("Autofill failed", e);
+                    AutofillResponse errorResponse = new AutofillResponse(
+                        "", 0.0, "Autofill failed: " + e.getMessage(), null
+                    );
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
+                });
+    }
+
+    /**
+     * POST /api/autofill/stream
+     * Streams a single field's answer as partial text (SSE or NDJSON).
+     * Long-form fields (motivation, cover letter) emit "delta" events while the model
+     * writes; every field ends with a "done" event holding the final answer.
+     */
+    @PostMapping(value = "/stream",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<AutofillStreamEvent>> autofillFieldStream(@RequestBody AutofillRequest request) {
+
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Flux.just(AutofillStreamEvent.done(
+                    new AutofillResponse("", 0.0, "Resume not extracted. Call POST /api/extract first.", null))));
         }
+
+        return ResponseEntity.ok(ollamaService.streamFieldValue(request, snapshot));
     }
 
     /**
@@ -83,44 +107,61 @@ public class AutofillController {
      * Autofills multiple fields at once (for efficiency).
      */
     @PostMapping("/batch")
-    public ResponseEntity<Map<String, AutofillResponse>> autofillBatch(
+    public Mono<ResponseEntity<Map<String, AutofillResponse>>> autofillBatch(
+            @RequestBody Map<String, AutofillRequest> fields) {
+
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+
+        if (!resumeStorage.hasResume() || snapshot == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new HashMap<>()));
+        }
+
+        // Deterministic fields resolve inline, LLM-bound fields run concurrently
+        return batchAutofillService.autofillBatch(fields, snapshot)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> {
+                    log.error("Batch autofill failed", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new HashMap<>()));
+                });
+    }
+
+    /**
+     * POST /api/autofill/batch/stream
+     * Streams one event per field as soon as it resolves (SSE or NDJSON),
+     * followed by a completion event with per-field timings.
+     */
+    @PostMapping(value = "/batch/stream",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<AutofillBatchEvent>> autofillBatchStream(
             @RequestBody Map<String, AutofillRequest> fields) {
-        
-        Map<String, AutofillResponse> responses = new HashMap<>();
-
-        try {
-            if (!resumeStorage.hasResume()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responses);
-            }
-
-            ResumeData resumeData = resumeStorage.get();
-            String extractedJson = resumeData.getExtractedJson();
-            
-            if (extractedJson == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responses);
-            }
-
-            StructuredResume structuredResume = objectMapper.readValue(extractedJson, StructuredResume.class);
-
-            // Process each field
-            for (Map.Entry<String, AutofillRequest> entry : fields.entrySet()) {
-                String fieldId = entry.getKey();
-                AutofillRequest fieldRequest = entry.getValue();
-                
-                try {
-                    AutofillResponse response = ollamaService.mapFieldToResumeValue(fieldRequest, structuredResume);
-                    responses.put(fieldId, response);
-                } catch (Exception e) {
-                    log.error("Failed to autofill field {}", fieldId, e);
-                    responses.put(fieldId, new AutofillResponse("", 0.0, "Failed: " + e.getMessage(), null));
-                }
-            }
-
-            return ResponseEntity.ok(responses);
-
-        } catch (Exception e) {
-            log.error("Batch autofill failed", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(responses);
+
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Flux.empty());
         }
+
+        return ResponseEntity.ok(batchAutofillService.streamBatch(fields, snapshot));
+    }
+
+    /**
+     * GET /api/autofill/cache/stats
+     * Returns hit/miss/eviction counters of the answer cache.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(answerCache.getStats());
+    }
+
+    /**
+     * DELETE /api/autofill/cache
+     * Drops every cached answer.
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> invalidateCache() {
+        answerCache.invalidateAll();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Autofill answer cache cleared");
+        return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+}
@@ -1,83 +1,136 @@
 package com.jobautofill.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jobautofill.model.ResumeData;
-import com.jobautofill.model.StructuredResume;
-import com.jobautofill.service.OllamaService;
+import com.jobautofill.model.ExtractionJobStatus;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.service.ExtractionJobService;
+import com.jobautofill.storage.ExtractionCache;
 import com.jobautofill.storage.ResumeStorage;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/extract")
 public class ExtractionController {
 
-    private static final Logger log = LoggerFactory.getLogger(ExtractionController.class);
-
-    private final OllamaService ollamaService;
+    private final ExtractionJobService extractionJobs;
     private final ResumeStorage resumeStorage;
-    private final ObjectMapper objectMapper;
+    private final ExtractionCache extractionCache;
 
-    public ExtractionController(OllamaService ollamaService, 
+    public ExtractionController(ExtractionJobService extractionJobs,
                                ResumeStorage resumeStorage,
-                               ObjectMapper objectMapper) {
-        this.ollamaService = ollamaService;
+                               ExtractionCache extractionCache) {
+        this.extractionJobs = extractionJobs;
         this.resumeStorage = resumeStorage;
-        this.objectMapper = objectMapper;
+        this.extractionCache = extractionCache;
     }
 
     /**
      * POST /api/extract
-     * Extracts structured JSON from the currently stored resume.
+     * Starts extracting structured JSON from the currently stored resume in the background
+     * and answers 202 with the job id. Re-submitting a resume that is still being
+     * extracted returns the running job. {@code wait=true} answers once the job is done,
+     * with the structured resume.
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> extractResume() {
+    public Mono<ResponseEntity<Map<String, Object>>> extractResume(
+            @RequestParam(value = "wait", defaultValue = "false") boolean wait) {
         Map<String, Object> response = new HashMap<>();
 
-        try {
-            // Check if resume exists
-            if (!resumeStorage.hasResume()) {
-                response.put("error", "No resume uploaded. Upload a resume first.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-            }
+        // Check if resume exists
+        if (!resumeStorage.hasResume()) {
+            response.put("error", "No resume uploaded. Upload a resume first.");
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
+        }
 
-            ResumeData resumeData = resumeStorage.get();
-            String resumeText = resumeData.getRawText();
+        ExtractionJobService.Submission submission = extractionJobs.submit(resumeStorage.get());
+        String jobId = submission.status().getJobId();
+
+        if (wait) {
+            return extractionJobs.awaitCompletion(jobId)
+                    .map(this::completedResponse)
+                    .switchIfEmpty(Mono.fromSupplier(() -> {
+                        // Finished and pruned before we could wait on it
+                        response.put("error", "Unknown extraction job: " + jobId);
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                    }));
+        }
 
-            log.info("Starting extraction for resume: {}", resumeData.getFileName());
+        response.put("success", true);
+        response.put("job_id", jobId);
+        response.put("attached", submission.attached());
+        response.put("job", submission.status());
+        response.put("status_url", "/api/extract/jobs/" + jobId);
+        response.put("events_url", "/api/extract/jobs/" + jobId + "/events");
+        return Mono.just(ResponseEntity.status(HttpStatus.ACCEPTED).body(response));
+    }
 
-            // Call Ollama to extract structured data
-            StructuredResume structuredResume = ollamaService.extractStructuredResume(resumeText);
+    /**
+     * GET /api/extract/jobs/{jobId}
+     * Returns the status of an extraction job.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<ExtractionJobStatus> status = extractionJobs.getStatus(jobId);
+        if (status.isEmpty()) {
+            response.put("error", "Unknown extraction job: " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
 
-            // Store the extracted JSON back in ResumeData
-            String extractedJson = objectMapper.writeValueAsString(structuredResume);
-            resumeData.setExtractedJson(extractedJson);
-            resumeStorage.store(resumeData);
+        response.put("success", true);
+        response.put("job", status.get());
+        return ResponseEntity.ok(response);
+    }
 
-            log.info("Extraction complete and stored");
+    /**
+     * GET /api/extract/jobs/{jobId}/events
+     * Streams status updates of an extraction job (SSE) until it finishes.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ExtractionJobStatus>> jobEvents(@PathVariable String jobId) {
+        return extractionJobs.events(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Flux.empty()));
+    }
 
-            // Return the structured resume
+    private ResponseEntity<Map<String, Object>> completedResponse(ExtractionJobStatus status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("job_id", status.getJobId());
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+        // Another upload may have published its own snapshot since this job finished
+        if (status.getState() == ExtractionJobStatus.State.SUCCEEDED && snapshot != null
+                && Long.valueOf(snapshot.getVersion()).equals(status.getSnapshotVersion())) {
             response.put("success", true);
-            response.put("structured_resume", structuredResume);
-
+            response.put("structured_resume", snapshot.getResume());
+            response.put("origin", snapshot.getOrigin());
             return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            log.error("Extraction failed", e);
-            response.put("error", "Extraction failed: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
+
+        response.put("error", status.getError() != null ? status.getError() : "Resume was replaced during extraction");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
+    /**
+     * GET /api/extract/cache/stats
+     * Returns hit/miss/eviction counters of the PDF text and extraction cache.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(extractionCache.getStats());
     }
 
     /**
      * GET /api/extract/current
-     * Returns the cached structured resume (if available).
+     * Returns the cached structured resume (if available). {@code origin} is HEURISTIC
+     * while the LLM extraction started at upload is still running.
      */
     @GetMapping("/current")
     public ResponseEntity<Map<String, Object>> getCurrentExtraction() {
@@ -88,22 +141,16 @@ public class ExtractionController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
 
-        ResumeData resumeData = resumeStorage.get();
-        String extractedJson = resumeData.getExtractedJson();
+        ResumeSnapshot snapshot = resumeStorage.getSnapshot();
 
-        if (extractedJson == null) {
+        if (snapshot == null) {
             response.put("error", "Resume not extracted yet. Call POST /api/extract first.");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
 
-        try {
-            StructuredResume structuredResume = objectMapper.readValue(extractedJson, StructuredResume.class);
-            response.put("success", true);
-            response.put("structured_resume", structuredResume);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("error", "Failed to parse stored extraction");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+        response.put("success", true);
+        response.put("structured_resume", snapshot.getResume());
+        response.put("origin", snapshot.getOrigin());
+        return ResponseEntity.ok(response);
     }
 }
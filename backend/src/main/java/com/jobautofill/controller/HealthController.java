@@ -1,5 +1,6 @@
 package com.jobautofill.controller;
 
+import com.jobautofill.service.ModelLifecycleManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,6 +14,12 @@ import java.util.Map;
 @RequestMapping("/api")
 public class HealthController {
 
+    private final ModelLifecycleManager modelLifecycle;
+
+    public HealthController(ModelLifecycleManager modelLifecycle) {
+        this.modelLifecycle = modelLifecycle;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
@@ -20,6 +27,7 @@ public class HealthController {
         response.put("timestamp", LocalDateTime.now().toString());
         response.put("service", "job-autofill-backend");
         response.put("version", "0.0.1-SNAPSHOT");
+        response.put("model", modelLifecycle.getStatus());
         return ResponseEntity.ok(response);
     }
 }
@@ -1,7 +1,8 @@
 package com.jobautofill.controller;
 
+import com.jobautofill.service.ModelCatalog;
 import com.jobautofill.service.OllamaService;
-import com.jobautofill.service.OllamaService.ModelSummary;
+import com.jobautofill.service.ResumeExtractionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -10,10 +11,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,24 +25,45 @@ public class OllamaController {
     private static final Logger log = LoggerFactory.getLogger(OllamaController.class);
 
     private final OllamaService ollamaService;
+    private final ModelCatalog modelCatalog;
+    private final ResumeExtractionService extractionService;
 
-    public OllamaController(OllamaService ollamaService) {
+    public OllamaController(OllamaService ollamaService, ModelCatalog modelCatalog,
+                            ResumeExtractionService extractionService) {
         this.ollamaService = ollamaService;
+        this.modelCatalog = modelCatalog;
+        this.extractionService = extractionService;
     }
 
+    /**
+     * GET /api/ollama/models
+     * Lists installed models from the in-memory catalogue, without calling Ollama.
+     * {@code refresh=true} reloads the catalogue first.
+     */
     @GetMapping("/models")
-    public ResponseEntity<Map<String, Object>> listModels() {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            List<ModelSummary> models = ollamaService.listAvailableModels();
-            response.put("models", models);
-            response.put("activeModel", ollamaService.getCurrentModel());
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            log.error("Failed to fetch Ollama models", e);
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+    public Mono<ResponseEntity<Map<String, Object>>> listModels(
+            @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
+        return ollamaService.listAvailableModels(refresh)
+                .map(models -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("models", models);
+                    response.put("activeModel", ollamaService.getCurrentModel());
+                    modelCatalog.getRefreshedAt().ifPresent(at -> response.put("refreshedAt", at.toString()));
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to fetch Ollama models", e);
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response));
+                });
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = ollamaService.getStats();
+        stats.put("extraction", extractionService.getStats());
+        return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/model")
@@ -49,43 +72,42 @@ public class OllamaController {
     }
 
     @PostMapping("/model")
-    public ResponseEntity<Map<String, Object>> updateModel(@RequestBody Map<String, String> request) {
+    public Mono<ResponseEntity<Map<String, Object>>> updateModel(@RequestBody Map<String, String> request) {
         String requestedModel = request.get("model");
         if (requestedModel == null || requestedModel.isBlank()) {
-            return ResponseEntity.badRequest()
+            return Mono.just(ResponseEntity.badRequest()
                     .body(Map.of(
                             "success", false,
                             "error", "Model name must not be empty"
-                    ));
+                    )));
         }
 
-        boolean available;
-        try {
-            available = ollamaService.isModelAvailable(requestedModel);
-        } catch (RuntimeException e) {
-            log.error("Failed to verify Ollama model {}", requestedModel, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "error", e.getMessage()
-                    ));
-        }
+        return ollamaService.isModelAvailable(requestedModel)
+                .map(available -> {
+                    if (!available) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(Map.<String, Object>of(
+                                        "success", false,
+                                        "error", "Model not found in local Ollama",
+                                        "model", requestedModel
+                                ));
+                    }
 
-        if (!available) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of(
-                            "success", false,
-                            "error", "Model not found in local Ollama",
+                    ollamaService.setModel(requestedModel);
+                    log.info("Ollama model switched to {}", requestedModel);
+
+                    return ResponseEntity.ok(Map.<String, Object>of(
+                            "success", true,
                             "model", requestedModel
                     ));
-        }
-
-        ollamaService.setModel(requestedModel);
-        log.info("Ollama model switched to {}", requestedModel);
-
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "model", requestedModel
-        ));
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to verify Ollama model {}", requestedModel, e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of(
+                                    "success", false,
+                                    "error", e.getMessage()
+                            )));
+                });
     }
 }
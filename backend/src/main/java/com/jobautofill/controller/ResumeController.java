@@ -1,10 +1,13 @@
 package com.jobautofill.controller;
 
 import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.service.ExtractionJobService;
 import com.jobautofill.service.ResumeParserService;
 import com.jobautofill.storage.ResumeStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,15 +24,23 @@ public class ResumeController {
 
     private final ResumeParserService parserService;
     private final ResumeStorage resumeStorage;
+    private final ExtractionJobService extractionJobs;
 
-    public ResumeController(ResumeParserService parserService, ResumeStorage resumeStorage) {
+    @Value("${autofill.extraction.start-on-upload:true}")
+    private boolean startOnUpload;
+
+    public ResumeController(ResumeParserService parserService, ResumeStorage resumeStorage,
+                            ExtractionJobService extractionJobs) {
         this.parserService = parserService;
         this.resumeStorage = resumeStorage;
+        this.extractionJobs = extractionJobs;
     }
 
     /**
      * POST /api/resume/upload
      * Accepts a PDF file, extracts text, stores in memory.
+     * Unless disabled, also publishes a heuristic structured resume so autofill works
+     * at once, and starts the LLM extraction that refines it in the background.
      */
     @PostMapping("/upload")
     public ResponseEntity<Map<String, Object>> uploadResume(
@@ -59,6 +70,18 @@ public class ResumeController {
 
             log.info("Resume uploaded and stored: {}", file.getOriginalFilename());
 
+            if (startOnUpload) {
+                ExtractionJobService.Submission submission = extractionJobs.startFromUpload(resumeData);
+                // The LLM extraction, if it was served from cache, else the heuristic resume
+                ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+                if (snapshot != null) {
+                    response.put("structured_resume", snapshot.getResume());
+                    response.put("origin", snapshot.getOrigin());
+                }
+                response.put("job_id", submission.status().getJobId());
+                response.put("job", submission.status());
+            }
+
             // Return success response
             response.put("success", true);
             response.put("fileName", file.getOriginalFilename());
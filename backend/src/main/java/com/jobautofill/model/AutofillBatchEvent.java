@@ -0,0 +1,97 @@
+package com.jobautofill.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Event emitted by the streaming batch autofill endpoint.
+ * A "field" event carries one resolved field, the final "complete" event carries per-field timings.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AutofillBatchEvent {
+
+    public static final String FIELD = "field";
+    public static final String COMPLETE = "complete";
+
+    private String event;
+
+    @JsonProperty("field_id")
+    private String fieldId;
+
+    private AutofillResponse response;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+
+    @JsonProperty("field_timings_ms")
+    private Map<String, Long> fieldTimingsMs;
+
+    // Default constructor
+    public AutofillBatchEvent() {}
+
+    public static AutofillBatchEvent field(String fieldId, AutofillResponse response, long elapsedMs) {
+        AutofillBatchEvent batchEvent = new AutofillBatchEvent();
+        batchEvent.event = FIELD;
+        batchEvent.fieldId = fieldId;
+        batchEvent.response = response;
+        batchEvent.elapsedMs = elapsedMs;
+        return batchEvent;
+    }
+
+    public static AutofillBatchEvent complete(Map<String, Long> fieldTimingsMs, long elapsedMs) {
+        AutofillBatchEvent batchEvent = new AutofillBatchEvent();
+        batchEvent.event = COMPLETE;
+        batchEvent.fieldTimingsMs = fieldTimingsMs;
+        batchEvent.elapsedMs = elapsedMs;
+        return batchEvent;
+    }
+
+    @JsonIgnore
+    public boolean isFieldEvent() {
+        return FIELD.equals(event);
+    }
+
+    // Getters and Setters
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public String getFieldId() {
+        return fieldId;
+    }
+
+    public void setFieldId(String fieldId) {
+        this.fieldId = fieldId;
+    }
+
+    public AutofillResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(AutofillResponse response) {
+        this.response = response;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public Map<String, Long> getFieldTimingsMs() {
+        return fieldTimingsMs;
+    }
+
+    public void setFieldTimingsMs(Map<String, Long> fieldTimingsMs) {
+        this.fieldTimingsMs = fieldTimingsMs;
+    }
+}
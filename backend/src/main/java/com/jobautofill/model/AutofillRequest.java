@@ -23,6 +23,10 @@ public class AutofillRequest {
     @JsonProperty("field_value_current")
     private String fieldValueCurrent;
 
+    // Optional Ollama model for this field, overrides the routing table
+    @JsonProperty("model")
+    private String model;
+
     // Default constructor
     public AutofillRequest() {}
 
@@ -76,4 +80,12 @@ public class AutofillRequest {
     public void setFieldValueCurrent(String fieldValueCurrent) {
         this.fieldValueCurrent = fieldValueCurrent;
     }
-}
\ No newline at end of file
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+}
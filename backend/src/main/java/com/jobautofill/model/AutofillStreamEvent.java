@@ -0,0 +1,63 @@
+package com.jobautofill.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Event emitted by the streaming single-field endpoint.
+ * "delta" events carry partial text as the model generates it, the final "done"
+ * event carries the complete (budget-trimmed) answer.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AutofillStreamEvent {
+
+    public static final String DELTA = "delta";
+    public static final String DONE = "done";
+
+    private String event;
+
+    private String text;
+
+    private AutofillResponse response;
+
+    // Default constructor
+    public AutofillStreamEvent() {}
+
+    public static AutofillStreamEvent delta(String text) {
+        AutofillStreamEvent streamEvent = new AutofillStreamEvent();
+        streamEvent.event = DELTA;
+        streamEvent.text = text;
+        return streamEvent;
+    }
+
+    public static AutofillStreamEvent done(AutofillResponse response) {
+        AutofillStreamEvent streamEvent = new AutofillStreamEvent();
+        streamEvent.event = DONE;
+        streamEvent.response = response;
+        return streamEvent;
+    }
+
+    // Getters and Setters
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public AutofillResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(AutofillResponse response) {
+        this.response = response;
+    }
+}
@@ -0,0 +1,109 @@
+package com.jobautofill.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Status of a background resume extraction, as returned by the job endpoints and
+ * emitted on the job's event stream. While the job runs, {@code stage} and the prompt
+ * counts say how far it got.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExtractionJobStatus {
+
+    public enum State { RUNNING, SUCCEEDED, FAILED }
+
+    /**
+     * Step of a job: looking up the extraction cache, waiting for the LLM, storing the
+     * result, or done.
+     */
+    public enum Stage { CACHE_LOOKUP, EXTRACTING, PUBLISHING, DONE }
+
+    @JsonProperty("job_id")
+    private final String jobId;
+
+    private final State state;
+
+    private final Stage stage;
+
+    @JsonProperty("file_name")
+    private final String fileName;
+
+    @JsonProperty("elapsed_ms")
+    private final long elapsedMs;
+
+    @JsonProperty("snapshot_version")
+    private final Long snapshotVersion;
+
+    // LLM prompts of the extraction answered so far and in total, null before it calls the LLM
+    @JsonProperty("prompts_answered")
+    private final Integer promptsAnswered;
+
+    @JsonProperty("prompts_total")
+    private final Integer promptsTotal;
+
+    // Whether a heuristic resume of the upload is already served while the LLM works
+    @JsonProperty("heuristic_published")
+    private final boolean heuristicPublished;
+
+    private final String error;
+
+    public ExtractionJobStatus(String jobId, State state, Stage stage, String fileName, long elapsedMs,
+                               Integer promptsAnswered, Integer promptsTotal, boolean heuristicPublished,
+                               Long snapshotVersion, String error) {
+        this.jobId = jobId;
+        this.state = state;
+        this.stage = stage;
+        this.fileName = fileName;
+        this.elapsedMs = elapsedMs;
+        this.promptsAnswered = promptsAnswered;
+        this.promptsTotal = promptsTotal;
+        this.heuristicPublished = heuristicPublished;
+        this.snapshotVersion = snapshotVersion;
+        this.error = error;
+    }
+
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public Integer getPromptsAnswered() {
+        return promptsAnswered;
+    }
+
+    public Integer getPromptsTotal() {
+        return promptsTotal;
+    }
+
+    public boolean isHeuristicPublished() {
+        return heuristicPublished;
+    }
+
+    public Long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,8 +1,10 @@
 package com.jobautofill.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Map;
 
 public class OllamaRequest {
 
@@ -11,7 +13,15 @@ public class OllamaRequest {
     private boolean stream;
 
     @JsonProperty("format")
-    private String format;  // Can be "json" to force JSON output
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object format;  // "json" or a JSON Schema the output must follow
+
+    @JsonProperty("keep_alive")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String keepAlive;  // How long Ollama keeps the model (and its KV cache) loaded, e.g. "30m"
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, Object> options;  // Generation options: num_predict, num_ctx, temperature, stop
 
     public OllamaRequest() {
     }
@@ -47,14 +57,30 @@ public class OllamaRequest {
         this.stream = stream;
     }
 
-    public String getFormat() {
+    public Object getFormat() {
         return format;
     }
 
-    public void setFormat(String format) {
+    public void setFormat(Object format) {
         this.format = format;
     }
 
+    public String getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(String keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Map<String, Object> getOptions() {
+        return options;
+    }
+
+    public void setOptions(Map<String, Object> options) {
+        this.options = options;
+    }
+
     // Inner class for Message
     public static class Message {
         private String role;
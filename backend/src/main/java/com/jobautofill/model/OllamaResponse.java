@@ -18,6 +18,22 @@ public class OllamaResponse {
     @JsonProperty("total_duration")
     private Long totalDuration;
 
+    @JsonProperty("load_duration")
+    private Long loadDuration;
+
+    // Prompt tokens evaluated for this call; tokens reused from Ollama's prompt cache are not counted
+    @JsonProperty("prompt_eval_count")
+    private Long promptEvalCount;
+
+    @JsonProperty("prompt_eval_duration")
+    private Long promptEvalDuration;
+
+    @JsonProperty("eval_count")
+    private Long evalCount;
+
+    @JsonProperty("eval_duration")
+    private Long evalDuration;
+
     // Getters and Setters
     public String getModel() {
         return model;
@@ -59,6 +75,46 @@ public class OllamaResponse {
         this.totalDuration = totalDuration;
     }
 
+    public Long getLoadDuration() {
+        return loadDuration;
+    }
+
+    public void setLoadDuration(Long loadDuration) {
+        this.loadDuration = loadDuration;
+    }
+
+    public Long getPromptEvalCount() {
+        return promptEvalCount;
+    }
+
+    public void setPromptEvalCount(Long promptEvalCount) {
+        this.promptEvalCount = promptEvalCount;
+    }
+
+    public Long getPromptEvalDuration() {
+        return promptEvalDuration;
+    }
+
+    public void setPromptEvalDuration(Long promptEvalDuration) {
+        this.promptEvalDuration = promptEvalDuration;
+    }
+
+    public Long getEvalCount() {
+        return evalCount;
+    }
+
+    public void setEvalCount(Long evalCount) {
+        this.evalCount = evalCount;
+    }
+
+    public Long getEvalDuration() {
+        return evalDuration;
+    }
+
+    public void setEvalDuration(Long evalDuration) {
+        this.evalDuration = evalDuration;
+    }
+
     // Inner class for Message
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Message {
@@ -0,0 +1,174 @@
+package com.jobautofill.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.util.ContentHash;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.ResumeEncoding;
+import com.jobautofill.util.ResumePromptRenderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable, pre-parsed view of an extracted resume.
+ * Built once when extraction finishes so the autofill hot path never parses
+ * or serializes the resume again. The resume is a private deep copy with
+ * read-only lists; callers must not mutate it.
+ */
+public final class ResumeSnapshot {
+
+    /**
+     * Where the resume came from: rules over the PDF text right after upload, or the
+     * LLM extraction that later replaces it.
+     */
+    public enum Origin { HEURISTIC, LLM }
+
+    private static final List<String> SECTIONS = List.of("personal_info", "education", "experience", "skills");
+
+    private final long version;
+    private final Origin origin;
+    private final ResumeEncoding encoding;
+    private final String fingerprint;
+    private final Map<String, String> sectionFingerprints;
+    private final Map<IntentType, String> contextFingerprints;
+    private final StructuredResume resume;
+    private final String resumeJson;
+    private final String promptJson;
+    private final Map<IntentType, String> focusedContexts;
+
+    private ResumeSnapshot(long version, Origin origin, ResumeEncoding encoding, String fingerprint,
+                           Map<String, String> sectionFingerprints, Map<IntentType, String> contextFingerprints,
+                           StructuredResume resume, String resumeJson, String promptJson,
+                           Map<IntentType, String> focusedContexts) {
+        this.version = version;
+        this.origin = origin;
+        this.encoding = encoding;
+        this.fingerprint = fingerprint;
+        this.sectionFingerprints = sectionFingerprints;
+        this.contextFingerprints = contextFingerprints;
+        this.resume = resume;
+        this.resumeJson = resumeJson;
+        this.promptJson = promptJson;
+        this.focusedContexts = focusedContexts;
+    }
+
+    /**
+     * @param encoding      how the resume is written into prompts
+     * @param contextBudget token budget of the focused context per intent
+     */
+    public static ResumeSnapshot create(long version, Origin origin, StructuredResume source,
+                                        ObjectMapper objectMapper, ResumeEncoding encoding,
+                                        ToIntFunction<IntentType> contextBudget) {
+        StructuredResume copy = objectMapper.convertValue(source, StructuredResume.class);
+        copy.setEducation(readOnly(copy.getEducation()));
+        copy.setExperience(readOnly(copy.getExperience()));
+        copy.setSkills(readOnly(copy.getSkills()));
+
+        String resumeJson;
+        try {
+            resumeJson = objectMapper.writeValueAsString(copy);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize structured resume", e);
+        }
+
+        String fingerprint = ContentHash.sha256(resumeJson);
+        Map<IntentType, String> focusedContexts = new EnumMap<>(IntentType.class);
+        Map<IntentType, String> contextFingerprints = new EnumMap<>(IntentType.class);
+        for (IntentType intentType : IntentType.values()) {
+            focusedContexts.put(intentType, ResumePromptRenderer.renderFocusedContext(intentType, copy, objectMapper,
+                    encoding, contextBudget.applyAsInt(intentType)));
+            // Hash the whole sections, not the budgeted slice, so an edit past the cut still counts
+            contextFingerprints.put(intentType, ResumePromptRenderer.hasFocusedSection(intentType)
+                    ? ContentHash.sha256(ResumePromptRenderer.renderSourceSections(intentType, copy, objectMapper))
+                    : fingerprint);
+        }
+
+        Map<String, String> sectionFingerprints = new LinkedHashMap<>();
+        JsonNode tree = objectMapper.valueToTree(copy);
+        for (String section : SECTIONS) {
+            sectionFingerprints.put(section, ContentHash.sha256(tree.path(section).toString()));
+        }
+
+        return new ResumeSnapshot(version, origin, encoding, fingerprint,
+                Collections.unmodifiableMap(sectionFingerprints), Collections.unmodifiableMap(contextFingerprints),
+                copy, resumeJson, ResumePromptRenderer.renderFullResume(copy, objectMapper, encoding),
+                Collections.unmodifiableMap(focusedContexts));
+    }
+
+    private static <T> List<T> readOnly(List<T> values) {
+        return values == null ? null : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Origin getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Encoding the resume is written into prompts with.
+     */
+    public ResumeEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Content hash of the extracted resume. Stable across restarts, unlike {@link #getVersion()}.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Content hash per top-level resume section (personal_info, education, ...).
+     */
+    public Map<String, String> getSectionFingerprints() {
+        return sectionFingerprints;
+    }
+
+    /**
+     * Content hash of the whole resume sections an intent's focused context is cut from,
+     * or {@link #getFingerprint()} for intents without a focused section. Answers are
+     * cached under it, so they stay valid while only other sections change.
+     */
+    public String getContextFingerprint(IntentType intentType) {
+        return contextFingerprints.get(intentType);
+    }
+
+    public Map<IntentType, String> getContextFingerprints() {
+        return contextFingerprints;
+    }
+
+    public StructuredResume getResume() {
+        return resume;
+    }
+
+    /**
+     * Compact JSON of the resume, as stored in {@link ResumeData#getExtractedJson()}.
+     */
+    public String getResumeJson() {
+        return resumeJson;
+    }
+
+    /**
+     * Full resume as embedded in prompts, in the configured encoding.
+     */
+    public String getPromptJson() {
+        return promptJson;
+    }
+
+    /**
+     * Resume sections relevant to the intent, cut to the intent's token budget.
+     */
+    public String getFocusedContext(IntentType intentType) {
+        return focusedContexts.getOrDefault(intentType, "{}");
+    }
+}
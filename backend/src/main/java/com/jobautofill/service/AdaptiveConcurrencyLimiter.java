@@ -0,0 +1,169 @@
+package com.jobautofill.service;
+
+import com.jobautofill.model.OllamaResponse;
+import com.jobautofill.util.LatencyWindow;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * AIMD limiter for the number of concurrent Ollama calls.
+ * Ollama's {@code total_duration} includes the time a call waits for a free runner, so
+ * the queueing delay is whatever it spent outside loading the model, evaluating the
+ * prompt and generating ({@code load_duration}, {@code prompt_eval_duration},
+ * {@code eval_duration}), plus any wall-clock time outside {@code total_duration}.
+ * It grows once more calls are sent than Ollama serves in parallel. While that delay
+ * stays within tolerance and calls are
+ * waiting, the limit grows by one per {@code limit} good samples; when it shows up (or
+ * a call times out) the limit is cut multiplicatively. The result drives
+ * {@link OllamaScheduler#setGlobalLimit}.
+ */
+@Service
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final OllamaScheduler scheduler;
+    private final LatencyWindow queueDelays = new LatencyWindow(256);
+
+    @Value("${ollama.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ollama.limiter.min-limit:1}")
+    private int minLimit;
+
+    @Value("${ollama.limiter.max-limit:8}")
+    private int maxLimit;
+
+    @Value("${ollama.limiter.queue-delay-tolerance:500}")
+    private long queueDelayTolerance;
+
+    @Value("${ollama.limiter.backoff-ratio:0.75}")
+    private double backoffRatio;
+
+    private int limit;
+    private int goodSamples;
+    private int samplesSinceDecrease;
+    private long increases;
+    private long decreases;
+    private long lastQueueDelayMs;
+
+    public AdaptiveConcurrencyLimiter(OllamaScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @PostConstruct
+    void init() {
+        limit = Math.max(minLimit, Math.min(maxLimit, scheduler.getGlobalLimit()));
+        if (enabled) {
+            scheduler.setGlobalLimit(limit);
+        }
+    }
+
+    /**
+     * Records a completed Ollama call that held a slot for {@code wallNanos}.
+     */
+    public void onResponse(long wallNanos, OllamaResponse response) {
+        if (response.getTotalDuration() == null) {
+            return;
+        }
+        long queueDelayMs = queueDelayNanos(wallNanos, response) / 1_000_000L;
+        queueDelays.record(queueDelayMs);
+
+        synchronized (this) {
+            lastQueueDelayMs = queueDelayMs;
+            samplesSinceDecrease++;
+            if (queueDelayMs > queueDelayTolerance) {
+                decrease("queueing delay " + queueDelayMs + " ms");
+                return;
+            }
+            // Only probe upwards when calls are actually waiting for a slot
+            if (scheduler.isSaturated() && ++goodSamples >= limit) {
+                goodSamples = 0;
+                if (limit < maxLimit) {
+                    limit++;
+                    increases++;
+                    apply("latency flat");
+                }
+            }
+        }
+    }
+
+    /**
+     * Time the call spent waiting: inside Ollama for a runner, and in transit or
+     * connection pools outside it.
+     */
+    static long queueDelayNanos(long wallNanos, OllamaResponse response) {
+        long total = response.getTotalDuration();
+        long working = nanos(response.getLoadDuration()) + nanos(response.getPromptEvalDuration())
+                + nanos(response.getEvalDuration());
+        long serverQueue = working > 0 ? Math.max(0L, total - working) : 0L;
+        long clientGap = Math.max(0L, wallNanos - total);
+        return serverQueue + clientGap;
+    }
+
+    private static long nanos(Long duration) {
+        return duration != null ? duration : 0L;
+    }
+
+    /**
+     * Records a failed Ollama call. Timeouts and server errors count as overload.
+     */
+    public void onError(Throwable error) {
+        boolean overload = error instanceof TimeoutException
+                || (error instanceof WebClientResponseException responseException
+                        && responseException.getStatusCode().is5xxServerError());
+        if (overload) {
+            synchronized (this) {
+                samplesSinceDecrease++;
+                decrease(error.getClass().getSimpleName());
+            }
+        }
+    }
+
+    // Callers hold the monitor
+    private void decrease(String reason) {
+        goodSamples = 0;
+        // Calls started before the last cut still report the old delay; ignore them
+        if (samplesSinceDecrease < limit) {
+            return;
+        }
+        int next = Math.max(minLimit, (int) Math.floor(limit * backoffRatio));
+        samplesSinceDecrease = 0;
+        if (next < limit) {
+            limit = next;
+            decreases++;
+            apply(reason);
+        }
+    }
+
+    private void apply(String reason) {
+        log.info("Ollama concurrency limit is now {} ({})", limit, reason);
+        if (enabled) {
+            scheduler.setGlobalLimit(limit);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("enabled", enabled);
+            stats.put("limit", limit);
+            stats.put("min_limit", minLimit);
+            stats.put("max_limit", maxLimit);
+            stats.put("increases", increases);
+            stats.put("decreases", decreases);
+            stats.put("last_queue_delay_ms", lastQueueDelayMs);
+        }
+        stats.put("queue_delay_p50_ms", queueDelays.percentile(50));
+        stats.put("queue_delay_p95_ms", queueDelays.percentile(95));
+        return stats;
+    }
+}
@@ -0,0 +1,163 @@
+package com.jobautofill.service;
+
+import com.jobautofill.model.AutofillBatchEvent;
+import com.jobautofill.model.AutofillRequest;
+import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.model.ResumeSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a batch of form fields.
+ * Deterministic answers are emitted immediately, LLM-bound fields are fanned out
+ * with at most {@code autofill.batch.max-concurrency} Ollama calls in flight, so the
+ * batch takes roughly as long as its slowest field.
+ * In combined mode the LLM-bound fields are packed into multi-field prompts.
+ */
+@Service
+public class BatchAutofillService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAutofillService.class);
+
+    private final OllamaService ollamaService;
+    private final MultiFieldGenerationService multiFieldGeneration;
+
+    @Value("${autofill.batch.max-concurrency:2}")
+    private int maxConcurrency;
+
+    @Value("${autofill.batch.mode:combined}")
+    private String mode;
+
+    @Value("${autofill.batch.max-fields-per-prompt:8}")
+    private int maxFieldsPerPrompt;
+
+    public BatchAutofillService(OllamaService ollamaService, MultiFieldGenerationService multiFieldGeneration) {
+        this.ollamaService = ollamaService;
+        this.multiFieldGeneration = multiFieldGeneration;
+    }
+
+    /**
+     * Resolves every field and completes once the slowest one is done.
+     */
+    public Mono<Map<String, AutofillResponse>> autofillBatch(Map<String, AutofillRequest> fields,
+                                                            ResumeSnapshot snapshot) {
+        return streamBatch(fields, snapshot)
+                .filter(AutofillBatchEvent::isFieldEvent)
+                .collect(HashMap::new, (responses, event) -> responses.put(event.getFieldId(), event.getResponse()));
+    }
+
+    /**
+     * Emits one event per field as soon as it resolves, deterministic answers first,
+     * followed by a completion event with per-field timings.
+     */
+    public Flux<AutofillBatchEvent> streamBatch(Map<String, AutofillRequest> fields, ResumeSnapshot snapshot) {
+        return Flux.defer(() -> {
+            long start = System.currentTimeMillis();
+            Map<String, Long> timings = new ConcurrentHashMap<>();
+            Map<String, AutofillResponse> resolved = new LinkedHashMap<>();
+            Map<String, AutofillRequest> llmFields = new LinkedHashMap<>();
+
+            for (Map.Entry<String, AutofillRequest> entry : fields.entrySet()) {
+                String fieldId = entry.getKey();
+                try {
+                    AutofillResponse response = ollamaService.resolveWithoutLlm(entry.getValue(), snapshot);
+                    if (response != null) {
+                        resolved.put(fieldId, response);
+                    } else {
+                        llmFields.put(fieldId, entry.getValue());
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to autofill field {}", fieldId, e);
+                    resolved.put(fieldId, failed(e));
+                }
+            }
+
+            Flux<Map.Entry<String, AutofillResponse>> llmResults = "per-field".equalsIgnoreCase(mode)
+                    ? resolvePerField(llmFields, snapshot)
+                    : resolveCombined(llmFields, snapshot);
+
+            return Flux.concat(Flux.fromIterable(resolved.entrySet()), llmResults)
+                    .map(entry -> {
+                        long elapsed = System.currentTimeMillis() - start;
+                        timings.put(entry.getKey(), elapsed);
+                        return AutofillBatchEvent.field(entry.getKey(), entry.getValue(), elapsed);
+                    })
+                    .concatWith(Mono.fromSupplier(() -> {
+                        long elapsed = System.currentTimeMillis() - start;
+                        log.info("Batch autofill resolved {} fields ({} via LLM) in {} ms",
+                                fields.size(), llmFields.size(), elapsed);
+                        return AutofillBatchEvent.complete(timings, elapsed);
+                    }));
+        });
+    }
+
+    private Flux<Map.Entry<String, AutofillResponse>> resolvePerField(Map<String, AutofillRequest> llmFields,
+                                                                     ResumeSnapshot snapshot) {
+        return Flux.fromIterable(llmFields.entrySet())
+                .flatMap(entry -> ollamaService.mapFieldWithLlm(entry.getValue(), snapshot, OllamaScheduler.Priority.BATCH)
+                        .onErrorResume(e -> {
+                            log.error("Failed to autofill field {}", entry.getKey(), e);
+                            return Mono.just(failed(e));
+                        })
+                        .map(response -> Map.entry(entry.getKey(), response)),
+                        Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Packs LLM-bound fields routed to the same model into prompts of at most
+     * {@code maxFieldsPerPrompt} fields, so the resume is evaluated once per chunk
+     * instead of once per field.
+     */
+    private Flux<Map.Entry<String, AutofillResponse>> resolveCombined(Map<String, AutofillRequest> llmFields,
+                                                                     ResumeSnapshot snapshot) {
+        // Fields routed to the same model share prompts
+        Map<String, Map<String, AutofillRequest>> byModel = new LinkedHashMap<>();
+        llmFields.forEach((fieldId, fieldRequest) -> byModel
+                .computeIfAbsent(ollamaService.modelFor(fieldRequest), key -> new LinkedHashMap<>())
+                .put(fieldId, fieldRequest));
+
+        List<Map<String, AutofillRequest>> chunks = new ArrayList<>();
+        for (Map<String, AutofillRequest> modelFields : byModel.values()) {
+            Map<String, AutofillRequest> chunk = new LinkedHashMap<>();
+            for (Map.Entry<String, AutofillRequest> entry : modelFields.entrySet()) {
+                chunk.put(entry.getKey(), entry.getValue());
+                if (chunk.size() >= Math.max(1, maxFieldsPerPrompt)) {
+                    chunks.add(chunk);
+                    chunk = new LinkedHashMap<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(fieldsInChunk -> multiFieldGeneration.mapFieldsWithLlm(fieldsInChunk, snapshot)
+                        .onErrorResume(e -> {
+                            log.error("Failed to autofill fields {}", fieldsInChunk.keySet(), e);
+                            Map<String, AutofillResponse> failures = new LinkedHashMap<>();
+                            fieldsInChunk.keySet().forEach(fieldId -> failures.put(fieldId, failed(e)));
+                            return Mono.just(failures);
+                        })
+                        .flatMapIterable(Map::entrySet),
+                        Math.max(1, maxConcurrency));
+    }
+
+    private AutofillResponse failed(Throwable e) {
+        if (e instanceof OllamaScheduler.BusyException) {
+            return new AutofillResponse("", 0.0, e.getMessage(), "busy");
+        }
+        return new AutofillResponse("", 0.0, "Failed: " + e.getMessage(), null);
+    }
+}
@@ -0,0 +1,241 @@
+package com.jobautofill.service;
+
+import com.jobautofill.model.ExtractionJobStatus;
+import com.jobautofill.model.ExtractionJobStatus.Stage;
+import com.jobautofill.model.ExtractionJobStatus.State;
+import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.storage.ExtractionCache;
+import com.jobautofill.storage.ResumeStorage;
+import com.jobautofill.util.ContentHash;
+import com.jobautofill.util.ResumePreExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs resume extraction as a background job that outlives the HTTP request.
+ * Submitting the same resume text while its job is still running returns that job
+ * instead of starting a second extraction. The result is published to
+ * {@link ResumeStorage} when the job finishes. Text extracted before with the same
+ * model, mode and prompts is served from the {@link ExtractionCache} without Ollama.
+ */
+@Service
+public class ExtractionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionJobService.class);
+
+    private static final Duration HEARTBEAT = Duration.ofSeconds(1);
+
+    private final ResumeExtractionService extractionService;
+    private final ResumeStorage resumeStorage;
+    private final ExtractionCache extractionCache;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // Running job per resume text hash
+    private final Map<String, Job> running = new ConcurrentHashMap<>();
+
+    @Value("${autofill.extraction.job-retention:3600000}")
+    private long jobRetentionMillis;
+
+    public ExtractionJobService(ResumeExtractionService extractionService, ResumeStorage resumeStorage,
+                                ExtractionCache extractionCache) {
+        this.extractionService = extractionService;
+        this.resumeStorage = resumeStorage;
+        this.extractionCache = extractionCache;
+    }
+
+    /**
+     * Starts the LLM extraction of an upload and, while it runs, publishes a heuristic
+     * resume built by rules over the text so autofill works right away. The heuristic
+     * is skipped when the extraction finishes at once from the extraction cache.
+     */
+    public Submission startFromUpload(ResumeData resumeData) {
+        Submission submission = submit(resumeData);
+        if (!submission.status().isFinished()
+                && resumeStorage.storeExtraction(resumeData, ResumePreExtractor.heuristicResume(
+                        resumeData.getRawText()), ResumeSnapshot.Origin.HEURISTIC) != null) {
+            log.info("Published heuristic resume for {}", resumeData.getFileName());
+            Job job = jobs.get(submission.status().getJobId());
+            if (job != null) {
+                job.update(() -> job.heuristicPublished = true);
+            }
+        }
+        return submission;
+    }
+
+    /**
+     * Starts extracting {@code resumeData}, or returns the job already extracting the
+     * same text.
+     */
+    public Submission submit(ResumeData resumeData) {
+        purgeFinished();
+
+        String resumeHash = ContentHash.sha256(resumeData.getRawText());
+        boolean[] created = new boolean[1];
+        Job job = running.computeIfAbsent(resumeHash, key -> {
+            created[0] = true;
+            Job started = new Job(UUID.randomUUID().toString(), resumeHash, resumeData);
+            jobs.put(started.id, started);
+            return started;
+        });
+
+        if (created[0]) {
+            log.info("Starting extraction job {} for resume: {}", job.id, resumeData.getFileName());
+            run(job);
+        } else {
+            log.info("Resume {} is already being extracted, attaching to job {}", resumeData.getFileName(), job.id);
+        }
+        return new Submission(job.status(), !created[0]);
+    }
+
+    public Optional<ExtractionJobStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::status);
+    }
+
+    /**
+     * Status updates of a job: the current status right away, then every change of stage,
+     * answered LLM prompt or published heuristic resume, and the final status, after which
+     * the stream completes. A heartbeat repeats the status every second in between.
+     */
+    public Optional<Flux<ExtractionJobStatus>> events(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Flux.merge(
+                        job.updates.asFlux(),
+                        Flux.interval(HEARTBEAT, HEARTBEAT).map(tick -> job.status()))
+                .takeUntil(ExtractionJobStatus::isFinished));
+    }
+
+    /**
+     * Completes with the final status of a job.
+     */
+    public Mono<ExtractionJobStatus> awaitCompletion(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Mono.empty();
+        }
+        return job.updates.asFlux().filter(ExtractionJobStatus::isFinished).next();
+    }
+
+    private void run(Job job) {
+        String resumeText = job.resumeData.getRawText();
+        String cacheKey = ExtractionCache.resumeKey(resumeText, extractionService.getExtractionSignature());
+        Mono<StructuredResume> extraction = Mono.justOrEmpty(extractionCache.getResume(cacheKey))
+                .doOnNext(cached -> log.info("Extraction job {} served from the extraction cache", job.id))
+                .switchIfEmpty(Mono.defer(() -> {
+                    job.update(() -> job.stage = Stage.EXTRACTING);
+                    return extractionService.extractStructuredResume(resumeText,
+                                    (answered, total) -> job.update(() -> {
+                                        job.promptsAnswered = answered;
+                                        job.promptsTotal = total;
+                                    }))
+                            .doOnNext(structuredResume -> extractionCache.putResume(cacheKey, structuredResume));
+                }));
+
+        extraction
+                .subscribe(structuredResume -> {
+                    job.update(() -> job.stage = Stage.PUBLISHING);
+                    // A re-upload of the same text attached to this job, the result belongs to it
+                    ResumeData current = resumeStorage.get();
+                    boolean sameText = current != null
+                            && job.resumeHash.equals(ContentHash.sha256(current.getRawText()));
+                    ResumeData target = sameText ? current : job.resumeData;
+                    // Publishes atomically, and only if this resume is still the current one
+                    ResumeSnapshot snapshot = resumeStorage.storeExtraction(target, structuredResume);
+                    if (snapshot == null) {
+                        finish(job, State.FAILED, null,
+                                "Resume was replaced during extraction. Call POST /api/extract again.");
+                    } else {
+                        log.info("Extraction job {} complete and stored (snapshot version {})", job.id,
+                                snapshot.getVersion());
+                        finish(job, State.SUCCEEDED, snapshot.getVersion(), null);
+                    }
+                }, e -> {
+                    if (!(e instanceof OllamaScheduler.BusyException)) {
+                        log.error("Extraction job {} failed", job.id, e);
+                    }
+                    finish(job, State.FAILED, null, e instanceof OllamaScheduler.BusyException
+                            ? e.getMessage()
+                            : "Extraction failed: " + e.getMessage());
+                });
+    }
+
+    private void finish(Job job, State state, Long snapshotVersion, String error) {
+        running.remove(job.resumeHash, job);
+        job.update(() -> {
+            job.snapshotVersion = snapshotVersion;
+            job.error = error;
+            job.finishedAt = System.currentTimeMillis();
+            job.stage = Stage.DONE;
+            job.state = state;
+        });
+        synchronized (job) {
+            job.updates.tryEmitComplete();
+        }
+    }
+
+    private void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - jobRetentionMillis;
+        jobs.values().removeIf(job -> job.state != State.RUNNING && job.finishedAt < cutoff);
+    }
+
+    /**
+     * Result of {@link #submit}: the job's status and whether it was already running.
+     */
+    public record Submission(ExtractionJobStatus status, boolean attached) {
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String resumeHash;
+        private final ResumeData resumeData;
+        private final long startedAt = System.currentTimeMillis();
+        private final Sinks.Many<ExtractionJobStatus> updates = Sinks.many().replay().latest();
+
+        private volatile State state = State.RUNNING;
+        private volatile Stage stage = Stage.CACHE_LOOKUP;
+        private volatile Integer promptsAnswered;
+        private volatile Integer promptsTotal;
+        private volatile boolean heuristicPublished;
+        private volatile Long snapshotVersion;
+        private volatile String error;
+        private volatile long finishedAt;
+
+        private Job(String id, String resumeHash, ResumeData resumeData) {
+            this.id = id;
+            this.resumeHash = resumeHash;
+            this.resumeData = resumeData;
+            updates.tryEmitNext(status());
+        }
+
+        /**
+         * Applies a change and emits the new status. Changes come from the request, Ollama
+         * response and scheduler threads; the sink takes one emission at a time.
+         */
+        synchronized void update(Runnable change) {
+            change.run();
+            updates.tryEmitNext(status());
+        }
+
+        ExtractionJobStatus status() {
+            long end = state == State.RUNNING ? System.currentTimeMillis() : finishedAt;
+            return new ExtractionJobStatus(id, state, stage, resumeData.getFileName(), end - startedAt,
+                    promptsAnswered, promptsTotal, heuristicPublished, snapshotVersion, error);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the models installed in Ollama ({@code /api/tags}).
+ * Refreshed in the background, so listing models never waits for Ollama, which can
+ * be slow to answer while it is generating. Only the very first read, before any
+ * refresh has succeeded, goes to Ollama.
+ */
+@Service
+public class ModelCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelCatalog.class);
+
+    private final OllamaEndpointPool endpoints;
+
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+    private final AtomicReference<Mono<Catalog>> refreshing = new AtomicReference<>();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private volatile String lastError;
+
+    @Value("${ollama.models.timeout:5000}")
+    private int timeout;
+
+    public ModelCatalog(OllamaEndpointPool ollamaEndpointPool) {
+        this.endpoints = ollamaEndpointPool;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${ollama.models.refresh-interval:60000}")
+    public void scheduledRefresh() {
+        refresh().onErrorResume(e -> Mono.empty()).block(Duration.ofMillis(timeout).multipliedBy(2));
+    }
+
+    /**
+     * Installed models, from memory once the catalogue has been loaded.
+     */
+    public Mono<List<ModelSummary>> getModels() {
+        Catalog current = catalog.get();
+        return current != null ? Mono.just(current.models) : refresh().map(loaded -> loaded.models);
+    }
+
+    /**
+     * Reloads the catalogue from Ollama now.
+     */
+    public Mono<List<ModelSummary>> reload() {
+        return refresh().map(loaded -> loaded.models);
+    }
+
+    /**
+     * Looks a model up by name, {@code llama3} also matches {@code llama3:latest}.
+     */
+    public Optional<ModelSummary> find(String name) {
+        Catalog current = catalog.get();
+        return current == null ? Optional.empty() : current.find(name);
+    }
+
+    /**
+     * Whether {@code name} is installed. A name missing from the catalogue triggers a
+     * refresh first, in case the model was pulled since the last one.
+     */
+    public Mono<Boolean> isAvailable(String name) {
+        if (find(name).isPresent()) {
+            return Mono.just(true);
+        }
+        return refresh().map(loaded -> loaded.find(name).isPresent());
+    }
+
+    /**
+     * Marks the catalogue stale and reloads it in the background. Reads keep being
+     * served from the previous copy until the reload completes.
+     */
+    public void invalidate() {
+        refresh().subscribe(loaded -> { }, e -> { });
+    }
+
+    public Optional<Instant> getRefreshedAt() {
+        Catalog current = catalog.get();
+        return current == null ? Optional.empty() : Optional.of(current.refreshedAt);
+    }
+
+    public Map<String, Object> getStats() {
+        Catalog current = catalog.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("models", current == null ? 0 : current.models.size());
+        stats.put("refreshed_at", current == null ? null : current.refreshedAt.toString());
+        stats.put("refreshes", refreshes.get());
+        stats.put("refresh_failures", refreshFailures.get());
+        stats.put("last_error", lastError);
+        return stats;
+    }
+
+    /**
+     * Reloads the catalogue. Concurrent callers share one /api/tags call.
+     */
+    private Mono<Catalog> refresh() {
+        Mono<Catalog> pending = refreshing.get();
+        if (pending != null) {
+            return pending;
+        }
+
+        Mono<Catalog> call = endpoints.any().get()
+                .uri("/api/tags")
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofMillis(timeout))
+                .map(response -> new Catalog(parseModelSummaries(response), Instant.now()))
+                .doOnNext(loaded -> {
+                    catalog.set(loaded);
+                    refreshes.incrementAndGet();
+                    lastError = null;
+                    log.debug("Model catalogue refreshed: {} models", loaded.models.size());
+                })
+                .doOnError(e -> {
+                    refreshFailures.incrementAndGet();
+                    lastError = e.getMessage();
+                    log.warn("Failed to refresh Ollama model catalogue: {}", e.getMessage());
+                })
+                .doFinally(signal -> refreshing.set(null))
+                .cache();
+
+        if (!refreshing.compareAndSet(null, call)) {
+            return refreshing.get() != null ? refreshing.get() : call;
+        }
+        return call;
+    }
+
+    private static List<ModelSummary> parseModelSummaries(JsonNode root) {
+        List<ModelSummary> summaries = new ArrayList<>();
+        for (JsonNode node : root.path("models")) {
+            JsonNode details = node.path("details");
+            JsonNode families = details.path("families");
+            String family = families.isArray() && families.size() > 0
+                    ? families.get(0).asText(null)
+                    : details.path("family").asText(null);
+
+            summaries.add(new ModelSummary(
+                    node.path("name").asText(),
+                    family,
+                    node.path("size").asLong(0L),
+                    node.path("modified_at").asText(null),
+                    details.path("parameter_size").asText(null),
+                    details.path("quantization_level").asText(null)));
+        }
+        return List.copyOf(summaries);
+    }
+
+    private record Catalog(List<ModelSummary> models, Instant refreshedAt) {
+
+        Optional<ModelSummary> find(String name) {
+            return models.stream()
+                    .filter(model -> model.getName().equals(name) || model.getName().equals(name + ":latest"))
+                    .findFirst();
+        }
+    }
+
+    public static class ModelSummary {
+        private final String name;
+        private final String family;
+        private final long sizeBytes;
+        private final String modifiedAt;
+        private final String parameterSize;
+        private final String quantizationLevel;
+
+        public ModelSummary(String name, String family, long sizeBytes, String modifiedAt, String parameterSize,
+                            String quantizationLevel) {
+            this.name = name;
+            this.family = family;
+            this.sizeBytes = sizeBytes;
+            this.modifiedAt = modifiedAt;
+            this.parameterSize = parameterSize;
+            this.quantizationLevel = quantizationLevel;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFamily() {
+            return family;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public String getModifiedAt() {
+            return modifiedAt;
+        }
+
+        public String getParameterSize() {
+            return parameterSize;
+        }
+
+        public String getQuantizationLevel() {
+            return quantizationLevel;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jobautofill.config.GenerationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Loads and unloads Ollama models in the background so no autofill request pays the
+ * model load time. Uses an empty /api/generate call, which only loads (or, with
+ * keep_alive 0, unloads) the model. With several endpoints every instance is loaded.
+ * Besides the default model, the models intents and extraction are routed to are
+ * loaded too; each stays resident for keep_alive after its last call. Ollama still
+ * evicts models beyond its own OLLAMA_MAX_LOADED_MODELS, or when memory runs out, so
+ * route to only as many distinct models as the machine can hold at once.
+ */
+@Service
+public class ModelLifecycleManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelLifecycleManager.class);
+
+    public enum LoadState { NOT_LOADED, LOADING, LOADED, FAILED }
+
+    private final OllamaEndpointPool endpoints;
+    private final GenerationProperties generation;
+
+    // Per model kept loaded; an unloaded model is removed so its late load result is dropped
+    private final Map<String, ModelStatus> statuses = new ConcurrentHashMap<>();
+
+    private volatile String currentModel;
+
+    @Value("${ollama.keep-alive:30m}")
+    private String keepAlive;
+
+    @Value("${ollama.load-timeout:300000}")
+    private int loadTimeout;
+
+    public ModelLifecycleManager(OllamaEndpointPool ollamaEndpointPool, GenerationProperties generation) {
+        this.endpoints = ollamaEndpointPool;
+        this.generation = generation;
+    }
+
+    /**
+     * Loads {@code model} in the background and keeps it resident for keep_alive.
+     */
+    public void preload(String model) {
+        preload(List.of(model));
+    }
+
+    /**
+     * Loads the default model, the first of {@code models}, then each other distinct one,
+     * one after the other so they do not compete for memory while loading.
+     */
+    public void preload(Collection<String> models) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(models));
+        if (distinct.isEmpty()) {
+            return;
+        }
+        currentModel = distinct.get(0);
+        Flux.fromIterable(distinct).concatMap(this::load).subscribe();
+    }
+
+    /**
+     * Unloads {@code previousModel} to free memory, then preloads {@code newModel}.
+     * Pass null as {@code previousModel} to keep it loaded, e.g. while a route uses it.
+     */
+    public void switchModel(String previousModel, String newModel) {
+        currentModel = newModel;
+        Mono<Void> unload = previousModel == null || previousModel.equals(newModel)
+                ? Mono.empty()
+                : unload(previousModel);
+        unload.then(load(newModel)).subscribe();
+    }
+
+    private Mono<Void> load(String model) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            statuses.put(model, new ModelStatus(model, LoadState.LOADING, null, null, null));
+            log.info("Preloading Ollama model {} (keep_alive: {})", model, keepAlive);
+
+            List<String> errors = new CopyOnWriteArrayList<>();
+            return Flux.fromIterable(endpoints.getEndpoints())
+                    .flatMap(endpoint -> generate(endpoint, model, keepAlive)
+                            .doOnNext(response -> {
+                                endpoint.setModelLoaded(model, true);
+                                log.info("Model {} loaded on {} (Ollama load_duration: {} ms)", model,
+                                        endpoint.getBaseUrl(), response.path("load_duration").asLong(0L) / 1_000_000L);
+                            })
+                            .onErrorResume(e -> {
+                                log.warn("Failed to preload model {} on {}: {}", model, endpoint.getBaseUrl(),
+                                        e.getMessage());
+                                errors.add(e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .count()
+                    .doOnNext(loaded -> {
+                        long loadMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                        if (loaded == 0) {
+                            updateIfCurrent(model, new ModelStatus(model, LoadState.FAILED, null, null,
+                                    errors.isEmpty() ? "No Ollama endpoint loaded the model" : errors.get(0)));
+                        } else {
+                            log.info("Model {} loaded in {} ms", model, loadMs);
+                            updateIfCurrent(model, new ModelStatus(model, LoadState.LOADED, loadMs, Instant.now(), null));
+                        }
+                    })
+                    .then();
+        });
+    }
+
+    private Mono<Void> unload(String model) {
+        log.info("Unloading previous Ollama model {}", model);
+        statuses.remove(model);
+        return Flux.fromIterable(endpoints.getEndpoints())
+                .flatMap(endpoint -> generate(endpoint, model, "0")
+                        .doOnNext(response -> {
+                            endpoint.setModelLoaded(model, false);
+                            log.info("Model {} unloaded from {}", model, endpoint.getBaseUrl());
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Failed to unload model {} from {}: {}", model, endpoint.getBaseUrl(),
+                                    e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<JsonNode> generate(OllamaEndpointPool.Endpoint endpoint, String model, String modelKeepAlive) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", model);
+        body.put("keep_alive", modelKeepAlive);
+        Integer numCtx = generation.preloadNumCtx();
+        if (numCtx != null) {
+            // Load with the context size autofill calls use, otherwise the first call reloads the model
+            body.put("options", Map.of("num_ctx", numCtx));
+        }
+
+        return endpoint.getClient().post()
+                .uri("/api/generate")
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofMillis(loadTimeout));
+    }
+
+    // A slow load of a model that has since been switched away from must not overwrite the new state
+    private void updateIfCurrent(String model, ModelStatus next) {
+        statuses.computeIfPresent(model, (name, current) -> next);
+    }
+
+    /**
+     * Load state of the current model and, under {@code routed_models}, of the other
+     * models kept loaded, for /api/health.
+     */
+    public Map<String, Object> getStatus() {
+        String current = currentModel;
+        Map<String, Object> map = toMap(current == null
+                ? new ModelStatus(null, LoadState.NOT_LOADED, null, null, null)
+                : statuses.getOrDefault(current, new ModelStatus(current, LoadState.NOT_LOADED, null, null, null)));
+        List<Map<String, Object>> routed = new ArrayList<>();
+        statuses.forEach((model, routedStatus) -> {
+            if (!model.equals(current)) {
+                routed.add(toMap(routedStatus));
+            }
+        });
+        if (!routed.isEmpty()) {
+            routed.sort((a, b) -> a.get("name").toString().compareTo(b.get("name").toString()));
+            map.put("routed_models", routed);
+        }
+        return map;
+    }
+
+    private Map<String, Object> toMap(ModelStatus current) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", current.model);
+        map.put("state", current.state.name().toLowerCase(Locale.ROOT));
+        map.put("keep_alive", keepAlive);
+        if (current.loadMs != null) {
+            map.put("load_ms", current.loadMs);
+        }
+        if (current.loadedAt != null) {
+            map.put("loaded_at", current.loadedAt.toString());
+        }
+        if (current.error != null) {
+            map.put("error", current.error);
+        }
+        return map;
+    }
+
+    private static final class ModelStatus {
+        private final String model;
+        private final LoadState state;
+        private final Long loadMs;
+        private final Instant loadedAt;
+        private final String error;
+
+        private ModelStatus(String model, LoadState state, Long loadMs, Instant loadedAt, String error) {
+            this.model = model;
+            this.state = state;
+            this.loadMs = loadMs;
+            this.loadedAt = loadedAt;
+            this.error = error;
+        }
+    }
+}
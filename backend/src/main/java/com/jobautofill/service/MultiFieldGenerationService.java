@@ -0,0 +1,318 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.model.AutofillRequest;
+import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.model.OllamaRequest;
+import com.jobautofill.model.OllamaResponse;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.service.OllamaScheduler.Priority;
+import com.jobautofill.util.FieldIntentClassifier;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.JsonSanitizer;
+import com.jobautofill.util.OutputSchemas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers several LLM-bound fields with one multi-field prompt.
+ * Shares in-flight generations and the single-field path with {@link OllamaService}.
+ */
+@Service
+public class MultiFieldGenerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiFieldGenerationService.class);
+
+    private final OllamaService ollamaService;
+    private final ObjectMapper objectMapper;
+    private final GenerationProperties generation;
+
+    public MultiFieldGenerationService(OllamaService ollamaService, ObjectMapper objectMapper,
+            GenerationProperties generation) {
+        this.ollamaService = ollamaService;
+        this.objectMapper = objectMapper;
+        this.generation = generation;
+    }
+
+    /**
+     * Maps several fields with a single Ollama call.
+     * Fields whose signature is already being generated (by another request or by a
+     * duplicate earlier in {@code fields}) wait for that generation instead of being sent again.
+     * The call keeps running while any request still waits for one of its fields.
+     */
+    public Mono<Map<String, AutofillResponse>> mapFieldsWithLlm(Map<String, AutofillRequest> fields,
+            ResumeSnapshot snapshot) {
+        return Mono.defer(() -> {
+            Map<String, AutofillRequest> leaders = new LinkedHashMap<>();
+            Map<String, Mono<AutofillResponse>> owned = new LinkedHashMap<>();
+            Map<String, Mono<AutofillResponse>> followers = new LinkedHashMap<>();
+
+            Mono<Map<String, AutofillResponse>> generation = Mono.defer(() -> generateFields(leaders, snapshot))
+                    .doFinally(signal -> owned.forEach((fieldId, shared) -> ollamaService.removeInFlight(
+                            ollamaService.cacheKey(leaders.get(fieldId), snapshot), shared)))
+                    .share();
+
+            for (Map.Entry<String, AutofillRequest> entry : fields.entrySet()) {
+                String fieldId = entry.getKey();
+                Mono<AutofillResponse> shared = generation
+                        .flatMap(responses -> Mono.justOrEmpty(responses.get(fieldId)))
+                        .switchIfEmpty(Mono.error(() -> new IllegalStateException("Generation did not complete")));
+                Mono<AutofillResponse> leader = ollamaService.registerInFlight(
+                        ollamaService.cacheKey(entry.getValue(), snapshot), shared);
+                if (leader != null) {
+                    followers.put(fieldId, leader);
+                } else {
+                    leaders.put(fieldId, entry.getValue());
+                    owned.put(fieldId, shared);
+                }
+            }
+
+            Map<String, AutofillResponse> responses = new ConcurrentHashMap<>();
+            return generation
+                    .doOnNext(responses::putAll)
+                    .thenMany(Flux.fromIterable(followers.entrySet()))
+                    .flatMap(follower -> follower.getValue()
+                            .map(response -> Map.entry(follower.getKey(), OllamaService.copyOf(response))))
+                    .doOnNext(entry -> responses.put(entry.getKey(), entry.getValue()))
+                    .then(Mono.fromSupplier(() -> {
+                        Map<String, AutofillResponse> ordered = new LinkedHashMap<>();
+                        fields.keySet().forEach(fieldId -> ordered.put(fieldId, responses.get(fieldId)));
+                        return ordered;
+                    }));
+        });
+    }
+
+    /**
+     * Sends {@code fields} in one prompt.
+     * The resume is sent once and the model answers with a JSON object keyed by field alias.
+     * Fields missing from a malformed answer are split in halves and retried; a single
+     * remaining field falls back to the single-field prompt.
+     */
+    private Mono<Map<String, AutofillResponse>> generateFields(Map<String, AutofillRequest> fields,
+            ResumeSnapshot snapshot) {
+        if (fields.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        // One prompt can only go to one model; split fields routed to different models
+        Map<String, Map<String, AutofillRequest>> byModel = new LinkedHashMap<>();
+        fields.forEach((fieldId, fieldRequest) -> byModel
+                .computeIfAbsent(ollamaService.modelFor(fieldRequest), key -> new LinkedHashMap<>())
+                .put(fieldId, fieldRequest));
+        if (byModel.size() > 1) {
+            return Flux.fromIterable(byModel.values())
+                    .flatMap(group -> generateFields(group, snapshot))
+                    .reduce(new LinkedHashMap<>(), (merged, partial) -> {
+                        merged.putAll(partial);
+                        return merged;
+                    });
+        }
+        String chunkModel = byModel.keySet().iterator().next();
+
+        if (fields.size() == 1) {
+            Map.Entry<String, AutofillRequest> only = fields.entrySet().iterator().next();
+            return ollamaService.generateField(only.getValue(), snapshot, Priority.BATCH)
+                    .onErrorResume(OllamaScheduler.BusyException.class, e -> Mono.just(OllamaService.busyResponse(e)))
+                    .map(response -> Map.of(only.getKey(), response));
+        }
+
+        StructuredResume resume = snapshot.getResume();
+        Map<String, String> aliases = new LinkedHashMap<>();
+        Map<String, IntentType> intents = new HashMap<>();
+        for (Map.Entry<String, AutofillRequest> entry : fields.entrySet()) {
+            aliases.put("f" + (aliases.size() + 1), entry.getKey());
+            intents.put(entry.getKey(), FieldIntentClassifier.classify(entry.getValue()).getType());
+        }
+
+        log.info("Mapping {} fields with a single Ollama call", fields.size());
+        JsonNode schema = OutputSchemas.multiField(aliases.keySet());
+        List<OllamaRequest.Message> messages = buildMultiFieldMessages(fields, aliases, intents, snapshot);
+        return ollamaService.chat("autofill_batch", Priority.BATCH, null, chunkModel,
+                        generation.batchOptions(intents.values()), schema, messages)
+                .map(response -> Map.entry(Optional.of(response), Optional.<Throwable>empty()))
+                .onErrorResume(e -> {
+                    if (!(e instanceof OllamaScheduler.BusyException)) {
+                        log.error("Failed to map fields to resume values with Ollama", e);
+                    }
+                    return Mono.just(Map.entry(Optional.empty(), Optional.of(e)));
+                })
+                .flatMap(result -> {
+                    Map<String, AutofillResponse> responses = new LinkedHashMap<>();
+                    Optional<OllamaResponse> response = result.getKey();
+                    if (response.isEmpty()) {
+                        Throwable error = result.getValue().orElse(null);
+                        fields.forEach((fieldId, fieldRequest) -> responses.put(fieldId,
+                                error instanceof OllamaScheduler.BusyException
+                                        ? OllamaService.busyResponse(error)
+                                        : error instanceof OllamaCircuitBreaker.CircuitOpenException
+                                                ? ollamaService.fallbackResponse(fieldRequest, resume, error)
+                                                : new AutofillResponse("", 0.0,
+                                                        "Failed to map field: Ollama call failed", "llm_error")));
+                        return Mono.just(responses);
+                    }
+
+                    OllamaService.OutputCounter output = ollamaService.outputCounter("autofill_batch");
+                    String content = response.get().getMessage().getContent();
+                    JsonNode answers = null;
+                    try {
+                        answers = objectMapper.readTree(content);
+                        if (OutputSchemas.validates(answers, schema)) {
+                            output.valid.increment();
+                        } else {
+                            output.repaired.increment();
+                        }
+                    } catch (Exception e) {
+                        try {
+                            answers = objectMapper.readTree(JsonSanitizer.extractJsonObject(content));
+                            output.repaired.increment();
+                        } catch (Exception repairError) {
+                            output.parseFailures.increment();
+                            log.warn("Combined autofill answer was not valid JSON: {}", e.getMessage());
+                        }
+                    }
+
+                    Map<String, AutofillRequest> retry = new LinkedHashMap<>();
+                    for (Map.Entry<String, String> alias : aliases.entrySet()) {
+                        String fieldId = alias.getValue();
+                        JsonNode answer = answers != null && answers.isObject() ? answers.get(alias.getKey()) : null;
+                        AutofillResponse parsed = null;
+                        if (answer != null && answer.isObject()) {
+                            try {
+                                parsed = objectMapper.treeToValue(answer, AutofillResponse.class);
+                            } catch (Exception e) {
+                                log.debug("Malformed answer for field {}: {}", fieldId, e.getMessage());
+                            }
+                        }
+
+                        if (parsed == null) {
+                            retry.put(fieldId, fields.get(fieldId));
+                        } else {
+                            AutofillResponse guardedResponse = ollamaService.enforceIntentConstraints(
+                                    intents.get(fieldId), parsed, resume);
+                            ollamaService.cacheAnswer(fields.get(fieldId), snapshot, guardedResponse);
+                            responses.put(fieldId, guardedResponse);
+                        }
+                    }
+
+                    if (retry.isEmpty()) {
+                        return Mono.just(responses);
+                    }
+
+                    log.warn("Combined answer missing {} of {} fields, retrying in halves", retry.size(),
+                            fields.size());
+                    output.retriedFields.add(retry.size());
+                    List<String> ids = new ArrayList<>(retry.keySet());
+                    int mid = ids.size() / 2;
+                    return Flux.just(ids.subList(0, mid), ids.subList(mid, ids.size()))
+                            .flatMap(half -> {
+                                Map<String, AutofillRequest> subset = new LinkedHashMap<>();
+                                half.forEach(fieldId -> subset.put(fieldId, retry.get(fieldId)));
+                                return generateFields(subset, snapshot);
+                            })
+                            .reduce(responses, (merged, partial) -> {
+                                merged.putAll(partial);
+                                return merged;
+                            });
+                });
+    }
+
+    private List<OllamaRequest.Message> buildMultiFieldMessages(Map<String, AutofillRequest> fields,
+            Map<String, String> aliases, Map<String, IntentType> intents, ResumeSnapshot snapshot) {
+        if (!ollamaService.isResumePrefixLayout()) {
+            return List.of(new OllamaRequest.Message("user",
+                    buildMultiFieldPrompt(fields, aliases, intents, snapshot)));
+        }
+        return List.of(ollamaService.resumeSystemMessage(snapshot),
+                new OllamaRequest.Message("user", buildMultiFieldQuestion(fields, aliases, intents)));
+    }
+
+    private String buildMultiFieldPrompt(Map<String, AutofillRequest> fields, Map<String, String> aliases,
+            Map<String, IntentType> intents, ResumeSnapshot snapshot) {
+        return String.format("""
+                You are filling several fields of a job application form.
+
+                Resume:
+                %s
+
+                Fields (id: description):
+                %s
+                Instructions:
+                1. Answer every field id listed above.
+                2. Use only information from the resume that matches each field's intent.
+                3. Do NOT repeat technical skills unless the field intent = skill_list.
+                4. If no relevant data exists, use the exact string EMPTY and confidence 0.0.
+                5. Keep each value concise and aligned with its field intent.
+
+                Return ONLY a JSON object keyed by field id, in this format:
+                {
+                    "f1": {
+                        "suggested_value": "value or EMPTY",
+                        "confidence": 0.0,
+                        "reasoning": "short explanation referencing resume",
+                        "field_matched": "which resume section you used"
+                    }
+                }
+                """,
+                snapshot.getPromptJson(),
+                buildFieldList(fields, aliases, intents));
+    }
+
+    /**
+     * Field-specific part of the multi-field prompt for the resume-prefix layout.
+     */
+    private String buildMultiFieldQuestion(Map<String, AutofillRequest> fields, Map<String, String> aliases,
+            Map<String, IntentType> intents) {
+        return String.format("""
+                Fill several fields of a job application form.
+
+                Fields (id: description):
+                %s
+                Instructions:
+                1. Answer every field id listed above.
+                2. Use only information from the resume that matches each field's intent.
+                3. Do NOT repeat technical skills unless the field intent = skill_list.
+                4. If no relevant data exists, use the exact string EMPTY and confidence 0.0.
+                5. Keep each value concise and aligned with its field intent.
+
+                Return ONLY a JSON object keyed by field id, in this format:
+                {
+                    "f1": {
+                        "suggested_value": "value or EMPTY",
+                        "confidence": 0.0,
+                        "reasoning": "short explanation referencing resume",
+                        "field_matched": "which resume section you used"
+                    }
+                }
+                """,
+                buildFieldList(fields, aliases, intents));
+    }
+
+    private String buildFieldList(Map<String, AutofillRequest> fields, Map<String, String> aliases,
+            Map<String, IntentType> intents) {
+        StringBuilder fieldList = new StringBuilder();
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            AutofillRequest fieldRequest = fields.get(alias.getValue());
+            fieldList.append(String.format("- %s: label=\"%s\", name=\"%s\", type=\"%s\", intent=%s%n",
+                    alias.getKey(),
+                    OllamaService.safe(fieldRequest.getFieldLabel()),
+                    OllamaService.safe(fieldRequest.getFieldName()),
+                    OllamaService.safe(fieldRequest.getFieldType()),
+                    intents.get(alias.getValue()).getDisplayName()));
+        }
+        return fieldList.toString();
+    }
+}
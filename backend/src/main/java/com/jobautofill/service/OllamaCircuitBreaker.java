@@ -0,0 +1,131 @@
+package com.jobautofill.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Circuit breaker for Ollama calls.
+ * After {@code failure-threshold} consecutive failures (timeouts, connection errors,
+ * 5xx) the circuit opens and calls fail immediately with {@link CircuitOpenException}
+ * for {@code open-duration}. Then a single trial call is let through; its outcome
+ * closes the circuit or opens it again.
+ */
+@Service
+public class OllamaCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(OllamaCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${ollama.resilience.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${ollama.resilience.breaker.open-duration:30000}")
+    private long openDurationMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long opened;
+    private long rejected;
+
+    /**
+     * Returns whether a call may go to Ollama. A true result in half-open state reserves
+     * the trial call, which must be reported through one of the on* methods.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            log.info("Circuit half-open, sending a trial call to Ollama");
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Ollama call succeeded, closing circuit");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure(Throwable error) {
+        if (!isOllamaFailure(error)) {
+            onCancel();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                opened++;
+                log.warn("Opening circuit after {} consecutive Ollama failures ({})", consecutiveFailures,
+                        error.getClass().getSimpleName());
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Releases a half-open trial that ended without a verdict (cancelled or rejected locally).
+     */
+    public synchronized void onCancel() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Whether {@code error} means Ollama itself is failing (as opposed to a bad request
+     * or a call rejected locally).
+     */
+    public static boolean isOllamaFailure(Throwable error) {
+        return error instanceof TimeoutException
+                || error instanceof WebClientRequestException
+                || (error instanceof WebClientResponseException responseException
+                        && responseException.getStatusCode().is5xxServerError());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name().toLowerCase(Locale.ROOT));
+        stats.put("consecutive_failures", consecutiveFailures);
+        stats.put("times_opened", opened);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+
+    /**
+     * Raised instead of calling Ollama while the circuit is open.
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException() {
+            super("Ollama is unavailable (circuit open), using fallback");
+        }
+    }
+}
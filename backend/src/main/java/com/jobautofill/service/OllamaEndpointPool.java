@@ -0,0 +1,273 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jobautofill.util.LatencyWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The Ollama instances configured in {@code ollama.base-url} (comma-separated).
+ * Inference calls go to the healthy endpoint with the fewest calls in flight, optionally
+ * preferring endpoints that already have the model loaded. An endpoint that fails
+ * {@code eject-after-failures} times in a row is ejected until a background probe of
+ * {@code /api/ps} succeeds again. It then comes back on probation: only a successful
+ * inference call clears its failures, so one more failure ejects it again.
+ */
+public class OllamaEndpointPool {
+
+    private static final Logger log = LoggerFactory.getLogger(OllamaEndpointPool.class);
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<Endpoint> endpoints;
+    private final boolean preferLoadedModel;
+    private final int ejectAfterFailures;
+
+    public OllamaEndpointPool(List<String> baseUrls, Function<String, WebClient> clientFactory,
+            boolean preferLoadedModel, int ejectAfterFailures) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("ollama.base-url must list at least one endpoint");
+        }
+        List<Endpoint> configured = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            configured.add(new Endpoint(baseUrl, clientFactory.apply(baseUrl)));
+        }
+        this.endpoints = List.copyOf(configured);
+        this.preferLoadedModel = preferLoadedModel;
+        this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+        log.info("Using {} Ollama endpoint(s): {}", endpoints.size(), baseUrls);
+    }
+
+    /**
+     * Runs an inference call against the best endpoint for {@code model}, tracking
+     * in-flight count, latency and health.
+     */
+    public <T> Mono<T> call(String model, Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+            Endpoint endpoint = select(model);
+            long started = endpoint.begin();
+            return request.apply(endpoint.client)
+                    .doOnNext(value -> endpoint.succeeded(model, started))
+                    .doOnError(e -> endpoint.failed(e, ejectAfterFailures))
+                    .doFinally(signal -> endpoint.end());
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #call}. Success is recorded when the stream completes
+     * or is cancelled after producing data.
+     */
+    public <T> Flux<T> callMany(String model, Function<WebClient, Flux<T>> request) {
+        return Flux.defer(() -> {
+            Endpoint endpoint = select(model);
+            long started = endpoint.begin();
+            AtomicBoolean producedData = new AtomicBoolean();
+            return request.apply(endpoint.client)
+                    .doOnNext(value -> producedData.set(true))
+                    .doOnError(e -> endpoint.failed(e, ejectAfterFailures))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE
+                                || (signal == SignalType.CANCEL && producedData.get())) {
+                            endpoint.succeeded(model, started);
+                        }
+                        endpoint.end();
+                    });
+        });
+    }
+
+    /**
+     * Client of a healthy endpoint, for metadata calls that do not run inference.
+     */
+    public WebClient any() {
+        return select(null).client;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    Endpoint select(String model) {
+        List<Endpoint> candidates = endpoints.stream().filter(endpoint -> endpoint.healthy).toList();
+        if (candidates.isEmpty()) {
+            // Nothing is healthy: let the call fail (or succeed) on the least recently failing endpoint
+            candidates = endpoints;
+        }
+        if (preferLoadedModel && model != null) {
+            List<Endpoint> loaded = candidates.stream()
+                    .filter(endpoint -> endpoint.loadedModels.contains(model))
+                    .toList();
+            if (!loaded.isEmpty()) {
+                candidates = loaded;
+            }
+        }
+        return candidates.stream()
+                .min(Comparator.comparingInt((Endpoint endpoint) -> endpoint.inFlight.get())
+                        .thenComparingInt(endpoint -> endpoint.consecutiveFailures.get()))
+                .orElseThrow();
+    }
+
+    /**
+     * Refreshes health and loaded models of every endpoint from {@code /api/ps}.
+     */
+    @Scheduled(fixedDelayString = "${ollama.endpoints.probe-interval:10000}",
+            initialDelayString = "${ollama.endpoints.probe-interval:10000}")
+    public void probe() {
+        Flux.fromIterable(endpoints)
+                .flatMap(this::probe)
+                .blockLast(PROBE_TIMEOUT.multipliedBy(2));
+    }
+
+    private Mono<Void> probe(Endpoint endpoint) {
+        return endpoint.client.get()
+                .uri("/api/ps")
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(PROBE_TIMEOUT)
+                .doOnNext(response -> {
+                    Set<String> loaded = new HashSet<>();
+                    for (JsonNode node : response.path("models")) {
+                        loaded.add(node.path("name").asText());
+                    }
+                    endpoint.loadedModels = Set.copyOf(loaded);
+                    if (!endpoint.healthy) {
+                        log.info("Ollama endpoint {} is reachable again, adding it back on probation",
+                                endpoint.baseUrl);
+                    }
+                    // /api/ps answering says nothing about /api/chat; failures are only
+                    // cleared by a successful call, so a still-broken endpoint cannot flap
+                    endpoint.healthy = true;
+                })
+                .onErrorResume(e -> {
+                    if (endpoint.healthy) {
+                        log.warn("Ejecting Ollama endpoint {}: probe failed ({})", endpoint.baseUrl, e.getMessage());
+                    }
+                    endpoint.healthy = false;
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            stats.add(endpoint.toMap());
+        }
+        return stats;
+    }
+
+    /**
+     * One Ollama instance.
+     */
+    public static final class Endpoint {
+        private final String baseUrl;
+        private final WebClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final LatencyWindow latencies = new LatencyWindow(256);
+        private final ConcurrentLinkedDeque<Long> recentCompletions = new ConcurrentLinkedDeque<>();
+        private volatile boolean healthy = true;
+        private volatile Set<String> loadedModels = Set.of();
+
+        private Endpoint(String baseUrl, WebClient client) {
+            this.baseUrl = baseUrl;
+            this.client = client;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public WebClient getClient() {
+            return client;
+        }
+
+        /**
+         * Marks {@code model} as loaded (or unloaded) here after a lifecycle call.
+         */
+        public void setModelLoaded(String model, boolean loaded) {
+            Set<String> models = new HashSet<>(loadedModels);
+            if (loaded) {
+                models.add(model);
+            } else {
+                models.remove(model);
+            }
+            loadedModels = Set.copyOf(models);
+        }
+
+        private long begin() {
+            inFlight.incrementAndGet();
+            requests.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        private void end() {
+            inFlight.decrementAndGet();
+        }
+
+        private void succeeded(String model, long started) {
+            latencies.record((System.nanoTime() - started) / 1_000_000L);
+            consecutiveFailures.set(0);
+            long now = System.currentTimeMillis();
+            recentCompletions.addLast(now);
+            trimCompletions(now);
+            if (model != null && !loadedModels.contains(model)) {
+                setModelLoaded(model, true);
+            }
+        }
+
+        private void failed(Throwable error, int ejectAfterFailures) {
+            if (!OllamaCircuitBreaker.isOllamaFailure(error)) {
+                return;
+            }
+            failures.incrementAndGet();
+            if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures && healthy) {
+                healthy = false;
+                log.warn("Ejecting Ollama endpoint {} after {} consecutive failures", baseUrl,
+                        consecutiveFailures.get());
+            }
+        }
+
+        private void trimCompletions(long now) {
+            Long oldest;
+            while ((oldest = recentCompletions.peekFirst()) != null && now - oldest > 60_000L) {
+                recentCompletions.pollFirst();
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            trimCompletions(System.currentTimeMillis());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("base_url", baseUrl);
+            map.put("healthy", healthy);
+            map.put("in_flight", inFlight.get());
+            map.put("requests", requests.get());
+            map.put("failures", failures.get());
+            map.put("completed_last_minute", recentCompletions.size());
+            map.put("latency_p50_ms", latencies.percentile(50));
+            map.put("latency_p95_ms", latencies.percentile(95));
+            map.put("loaded_models", loadedModels);
+            return map;
+        }
+    }
+}
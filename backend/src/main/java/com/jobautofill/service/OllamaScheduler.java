@@ -0,0 +1,309 @@
+package com.jobautofill.service;
+
+import com.jobautofill.util.LatencyWindow;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Orders Ollama calls by priority.
+ * Ollama only serves a few requests in parallel, so calls wait here for a slot instead of
+ * queueing inside Ollama in arrival order. Free slots always go to the highest priority
+ * class that is below its own concurrency cap; a class whose queue is full rejects new
+ * calls with {@link BusyException}, and so does a call that waited longer than its class's
+ * max-wait. The total limit can be changed at runtime by {@link AdaptiveConcurrencyLimiter}.
+ */
+@Service
+public class OllamaScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OllamaScheduler.class);
+
+    /**
+     * Priority classes, highest first.
+     */
+    public enum Priority { INTERACTIVE, BATCH, BACKGROUND }
+
+    private final Map<Priority, ClassState> classes = new EnumMap<>(Priority.class);
+    private final Object lock = new Object();
+    private int running;
+
+    @Value("${ollama.scheduler.max-concurrent:2}")
+    private volatile int globalLimit;
+
+    // Slots that only interactive calls may take, so a single field never waits behind a batch
+    @Value("${ollama.scheduler.interactive-reserve:1}")
+    private int interactiveReserve;
+
+    @Value("${ollama.scheduler.interactive.max-concurrent:8}")
+    private int interactiveMaxConcurrent;
+
+    @Value("${ollama.scheduler.interactive.max-queue:50}")
+    private int interactiveMaxQueue;
+
+    @Value("${ollama.scheduler.interactive.max-wait:30000}")
+    private long interactiveMaxWait;
+
+    @Value("${ollama.scheduler.batch.max-concurrent:8}")
+    private int batchMaxConcurrent;
+
+    @Value("${ollama.scheduler.batch.max-queue:100}")
+    private int batchMaxQueue;
+
+    @Value("${ollama.scheduler.batch.max-wait:300000}")
+    private long batchMaxWait;
+
+    @Value("${ollama.scheduler.background.max-concurrent:1}")
+    private int backgroundMaxConcurrent;
+
+    @Value("${ollama.scheduler.background.max-queue:4}")
+    private int backgroundMaxQueue;
+
+    @Value("${ollama.scheduler.background.max-wait:0}")
+    private long backgroundMaxWait;
+
+    @PostConstruct
+    void init() {
+        classes.put(Priority.INTERACTIVE, new ClassState(interactiveMaxConcurrent, interactiveMaxQueue,
+                interactiveMaxWait));
+        classes.put(Priority.BATCH, new ClassState(batchMaxConcurrent, batchMaxQueue, batchMaxWait));
+        classes.put(Priority.BACKGROUND, new ClassState(backgroundMaxConcurrent, backgroundMaxQueue,
+                backgroundMaxWait));
+    }
+
+    /**
+     * Runs {@code call} once a slot for {@code priority} is free. The slot is held until
+     * the call terminates or is cancelled.
+     */
+    public <T> Mono<T> schedule(Priority priority, Supplier<Mono<T>> call) {
+        return Mono.usingWhen(acquire(priority), permit -> call.get(), Permit::releaseAsync,
+                (permit, error) -> permit.releaseAsync(), Permit::releaseAsync);
+    }
+
+    /**
+     * Streaming variant of {@link #schedule}: the slot is held until the stream ends.
+     */
+    public <T> Flux<T> scheduleMany(Priority priority, Supplier<Flux<T>> call) {
+        return Flux.usingWhen(acquire(priority), permit -> call.get(), Permit::releaseAsync,
+                (permit, error) -> permit.releaseAsync(), Permit::releaseAsync);
+    }
+
+    private Mono<Permit> acquire(Priority priority) {
+        ClassState classState = classes.get(priority);
+        Mono<Permit> permit = Mono.create(sink -> {
+            Ticket ticket = new Ticket(priority, sink);
+            ClassState state = classes.get(priority);
+            synchronized (lock) {
+                state.submitted++;
+                if (state.queue.size() >= state.maxQueue) {
+                    state.rejected++;
+                    log.warn("Rejecting {} Ollama call: {} already queued", priority, state.queue.size());
+                    sink.error(new BusyException(priority, "queue full"));
+                    return;
+                }
+                state.queue.add(ticket);
+            }
+            sink.onCancel(() -> cancel(ticket));
+            dispatch();
+        });
+
+        if (classState.maxWaitMs <= 0) {
+            return permit;
+        }
+        // Timing out cancels the ticket, which takes it off the queue
+        return permit.timeout(Duration.ofMillis(classState.maxWaitMs), Mono.defer(() -> {
+            synchronized (lock) {
+                classState.timedOut++;
+            }
+            log.warn("Shedding {} Ollama call after waiting {} ms for a slot", priority, classState.maxWaitMs);
+            return Mono.error(new BusyException(priority, "no slot within " + classState.maxWaitMs + " ms"));
+        }));
+    }
+
+    private void cancel(Ticket ticket) {
+        boolean removed;
+        synchronized (lock) {
+            removed = classes.get(ticket.priority).queue.remove(ticket);
+        }
+        if (!removed && ticket.permit != null) {
+            ticket.permit.release();
+        }
+    }
+
+    private void release(Priority priority) {
+        synchronized (lock) {
+            running--;
+            classes.get(priority).running--;
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<Ticket> toStart = new ArrayList<>();
+        synchronized (lock) {
+            while (running < globalLimit) {
+                Ticket next = null;
+                boolean reservedOnly = running >= globalLimit - interactiveReserve;
+                for (Map.Entry<Priority, ClassState> entry : classes.entrySet()) {
+                    ClassState state = entry.getValue();
+                    if (reservedOnly && entry.getKey() != Priority.INTERACTIVE && running > 0) {
+                        break;
+                    }
+                    if (!state.queue.isEmpty() && state.running < state.maxConcurrent) {
+                        next = state.queue.poll();
+                        state.running++;
+                        break;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                running++;
+                next.permit = new Permit(next.priority);
+                toStart.add(next);
+            }
+        }
+
+        for (Ticket ticket : toStart) {
+            long waitMs = (System.nanoTime() - ticket.enqueuedAt) / 1_000_000L;
+            classes.get(ticket.priority).waits.record(waitMs);
+            ticket.sink.success(ticket.permit);
+        }
+    }
+
+    public int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    /**
+     * Whether every slot is taken or some call is waiting for one.
+     */
+    public boolean isSaturated() {
+        synchronized (lock) {
+            if (running >= globalLimit) {
+                return true;
+            }
+            return classes.values().stream().anyMatch(state -> !state.queue.isEmpty());
+        }
+    }
+
+    /**
+     * Changes how many Ollama calls may run at once across all classes.
+     */
+    public void setGlobalLimit(int limit) {
+        globalLimit = Math.max(1, limit);
+        dispatch();
+    }
+
+    /**
+     * Queue depth, running calls, rejections and queue wait percentiles per class.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("max_concurrent", globalLimit);
+            stats.put("running", running);
+            for (Map.Entry<Priority, ClassState> entry : classes.entrySet()) {
+                ClassState state = entry.getValue();
+                Map<String, Object> classStats = new LinkedHashMap<>();
+                classStats.put("running", state.running);
+                classStats.put("queued", state.queue.size());
+                classStats.put("max_concurrent", state.maxConcurrent);
+                classStats.put("max_queue", state.maxQueue);
+                classStats.put("submitted", state.submitted);
+                classStats.put("rejected", state.rejected);
+                classStats.put("timed_out", state.timedOut);
+                classStats.put("wait_avg_ms", state.waits.average());
+                classStats.put("wait_p50_ms", state.waits.percentile(50));
+                classStats.put("wait_p95_ms", state.waits.percentile(95));
+                classStats.put("wait_p99_ms", state.waits.percentile(99));
+                stats.put(entry.getKey().name().toLowerCase(Locale.ROOT), classStats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Raised when a call is shed: its priority class's queue is full, or it waited too
+     * long for a slot. Callers should answer "busy".
+     */
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Priority priority;
+
+        public BusyException(Priority priority, String reason) {
+            super("Ollama is busy (" + priority.name().toLowerCase(Locale.ROOT) + " " + reason
+                    + "), try again shortly");
+            this.priority = priority;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+    }
+
+    private static final class ClassState {
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long maxWaitMs;
+        private final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+        private final LatencyWindow waits = new LatencyWindow(1024);
+        private int running;
+        private long submitted;
+        private long rejected;
+        private long timedOut;
+
+        private ClassState(int maxConcurrent, int maxQueue, long maxWaitMs) {
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+            this.maxQueue = Math.max(0, maxQueue);
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+
+    private static final class Ticket {
+        private final Priority priority;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private volatile Permit permit;
+
+        private Ticket(Priority priority, MonoSink<Permit> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+    }
+
+    private final class Permit {
+        private final Priority priority;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Priority priority) {
+            this.priority = priority;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                OllamaScheduler.this.release(priority);
+            }
+        }
+
+        Mono<Void> releaseAsync() {
+            return Mono.fromRunnable(this::release);
+        }
+    }
+}
@@ -2,37 +2,92 @@ package com.jobautofill.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.config.ModelRoutingProperties;
 import com.jobautofill.model.AutofillRequest;
 import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.model.AutofillStreamEvent;
 import com.jobautofill.model.OllamaRequest;
 import com.jobautofill.model.OllamaResponse;
+import com.jobautofill.model.ResumeSnapshot;
 import com.jobautofill.model.StructuredResume;
+import com.jobautofill.service.OllamaScheduler.Priority;
+import com.jobautofill.storage.AutofillAnswerCache;
 import com.jobautofill.util.FieldExtractor;
 import com.jobautofill.util.FieldIntentClassifier;
 import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.FieldSignature;
 import com.jobautofill.util.JsonSanitizer;
+import com.jobautofill.util.LatencyWindow;
+import com.jobautofill.util.LongFormBudget;
+import com.jobautofill.util.OutputSchemas;
+import com.jobautofill.util.ResumePromptRenderer;
+import com.jobautofill.util.TokenEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
 @Service
 public class OllamaService {
 
     private static final Logger log = LoggerFactory.getLogger(OllamaService.class);
 
-    private final WebClient webClient;
+    // Part of the answer cache key; bump when the autofill prompts change so answers to
+    // the old prompts, also those on disk, are not served
+    private static final String PROMPT_VERSION = "1";
+
+    private final OllamaEndpointPool endpoints;
     private final ObjectMapper objectMapper;
+    private final AutofillAnswerCache answerCache;
+    private final ModelLifecycleManager modelLifecycle;
+    private final ModelCatalog modelCatalog;
+    private final OllamaScheduler scheduler;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final OllamaCircuitBreaker circuitBreaker;
+    private final OllamaTimeoutPolicy timeoutPolicy;
+    private final ModelRoutingProperties routing;
+    private final GenerationProperties generation;
+
+    // Latency of successful calls per model, to compare routes
+    private final Map<String, LatencyWindow> routeLatencies = new ConcurrentHashMap<>();
+
+    // Generations currently running, keyed like the answer cache
+    private final Map<String, Mono<AutofillResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+
+    // Prompt evaluation metrics reported by Ollama, per kind of call
+    private final Map<String, EvalCounter> evalCounters = new ConcurrentHashMap<>();
+
+    // Outcome of parsing model output, per purpose
+    private final Map<String, OutputCounter> outputCounters = new ConcurrentHashMap<>();
+
+    // Calls per num_ctx value
+    private final Map<Integer, LongAdder> contextSizes = new ConcurrentHashMap<>();
 
     @Value("${ollama.model}")
     private volatile String model;
@@ -40,52 +95,71 @@ public class OllamaService {
     @Value("${ollama.timeout}")
     private int timeout;
 
-    public OllamaService(WebClient ollamaWebClient, ObjectMapper objectMapper) {
-        this.webClient = ollamaWebClient;
-        this.objectMapper = objectMapper;
-    }
+    @Value("${ollama.keep-alive:30m}")
+    private String keepAlive;
 
-    public StructuredResume extractStructuredResume(String resumeText) {
-        log.info("Starting resume extraction with Ollama (model: {})", model);
+    @Value("${autofill.structured-output:true}")
+    private boolean structuredOutput;
 
-        String prompt = buildExtractionPrompt(resumeText);
+    @Value("${autofill.prompt.layout:resume-prefix}")
+    private String promptLayout;
 
-        OllamaRequest request = new OllamaRequest();
-        request.setModel(model);
-        request.setStream(false);
-        request.setFormat("json");
-        request.setMessages(List.of(
-                new OllamaRequest.Message("user", prompt)));
+    @Value("${ollama.preload:true}")
+    private boolean preload;
 
-        try {
-            OllamaResponse response = webClient.post()
-                    .uri("/api/chat")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(OllamaResponse.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            if (response == null || response.getMessage() == null) {
-                throw new RuntimeException("Empty response from Ollama");
-            }
+    @Value("${autofill.stream.max-chars:1500}")
+    private int streamMaxChars;
 
-            String rawJsonContent = response.getMessage().getContent();
-            String sanitizedJson = JsonSanitizer.sanitizeOllamaJson(rawJsonContent, objectMapper);
-            StructuredResume structuredResume = objectMapper.readValue(sanitizedJson, StructuredResume.class);
+    @Value("${autofill.stream.max-sentences:6}")
+    private int streamMaxSentences;
 
-            log.info("Successfully extracted structured resume");
-            return structuredResume;
+    @Value("${autofill.stream.cover-letter-max-sentences:15}")
+    private int coverLetterMaxSentences;
 
-        } catch (Exception e) {
-            log.error("Failed to extract structured resume", e);
-            throw new RuntimeException("Ollama extraction failed: " + e.getMessage(), e);
+    public OllamaService(OllamaEndpointPool ollamaEndpointPool, ObjectMapper objectMapper, AutofillAnswerCache answerCache,
+            ModelLifecycleManager modelLifecycle, ModelCatalog modelCatalog, OllamaScheduler scheduler,
+            AdaptiveConcurrencyLimiter limiter, OllamaCircuitBreaker circuitBreaker, OllamaTimeoutPolicy timeoutPolicy,
+            ModelRoutingProperties routing, GenerationProperties generation) {
+        this.endpoints = ollamaEndpointPool;
+        this.objectMapper = objectMapper;
+        this.answerCache = answerCache;
+        this.modelLifecycle = modelLifecycle;
+        this.modelCatalog = modelCatalog;
+        this.scheduler = scheduler;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.timeoutPolicy = timeoutPolicy;
+        this.routing = routing;
+        this.generation = generation;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadModel() {
+        if (preload) {
+            List<String> models = new ArrayList<>();
+            models.add(model);
+            models.addAll(routedModels());
+            modelLifecycle.preload(models);
         }
     }
 
-    public AutofillResponse mapFieldToResumeValue(AutofillRequest fieldRequest, StructuredResume resume) {
+    public Mono<AutofillResponse> mapFieldToResumeValue(AutofillRequest fieldRequest, ResumeSnapshot snapshot) {
         log.info("Mapping field: {} (name: {})", fieldRequest.getFieldLabel(), fieldRequest.getFieldName());
 
+        AutofillResponse resolved = resolveWithoutLlm(fieldRequest, snapshot);
+        if (resolved != null) {
+            return Mono.just(resolved);
+        }
+
+        return mapFieldWithLlm(fieldRequest, snapshot, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Resolves a field using only deterministic extraction and resume support checks.
+     * Returns null when the field needs an LLM call.
+     */
+    public AutofillResponse resolveWithoutLlm(AutofillRequest fieldRequest, ResumeSnapshot snapshot) {
+        StructuredResume resume = snapshot != null ? snapshot.getResume() : null;
         if (resume == null) {
             log.warn("Structured resume is null; returning empty value for field {}", fieldRequest.getFieldLabel());
             return new AutofillResponse("", 0.0, "Structured resume unavailable", "no_resume");
@@ -111,98 +185,498 @@ public class OllamaService {
         }
 
         if (!hasResumeSupport(intentType, resume)) {
+            if (snapshot.getOrigin() == ResumeSnapshot.Origin.HEURISTIC) {
+                // Only contact details and skills are known until the LLM extraction lands
+                log.info("No heuristic resume data for intent {}, extraction still running", intentType);
+                return new AutofillResponse("", 0.0, "Resume extraction is still running", "extraction_pending");
+            }
             log.info("No resume data found for intent {}. Returning empty value.", intentType);
             return new AutofillResponse("", 0.1, "No relevant resume data for intent " + intentType.getDisplayName(),
                     "no_data");
         }
 
-        String prompt = buildSmartAutofillPrompt(fieldRequest, resume, intentResult);
+        AutofillResponse cached = answerCache.get(cacheKey(fieldRequest, snapshot));
+        if (cached != null) {
+            log.info("Using cached answer for intent {}: {}", intentType, cached.getSuggestedValue());
+            return cached;
+        }
+
+        return null;
+    }
+
+    /**
+     * Maps a field through Ollama, skipping the deterministic fast path.
+     * Callers are expected to have tried {@link #resolveWithoutLlm} first.
+     * Concurrent calls for the same field signature share one generation. It keeps
+     * running while any of them still waits for it, and each gets its outcome, value
+     * or error.
+     */
+    public Mono<AutofillResponse> mapFieldWithLlm(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            Priority priority) {
+        return Mono.defer(() -> {
+            String key = cacheKey(fieldRequest, snapshot);
+            AtomicReference<Mono<AutofillResponse>> self = new AtomicReference<>();
+            // share() cancels the generation only once every subscriber has cancelled
+            Mono<AutofillResponse> shared = Mono.defer(() -> generateField(fieldRequest, snapshot, priority))
+                    .doFinally(signal -> removeInFlight(key, self.get()))
+                    .share();
+            self.set(shared);
+            Mono<AutofillResponse> leader = registerInFlight(key, shared);
+            if (leader != null) {
+                log.info("Joining in-flight generation for field {}", fieldRequest.getFieldLabel());
+                return leader.map(OllamaService::copyOf);
+            }
+            return shared;
+        });
+    }
+
+    Mono<AutofillResponse> generateField(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            Priority priority) {
+        StructuredResume resume = snapshot.getResume();
+        FieldIntentClassifier.IntentResult intentResult = FieldIntentClassifier.classify(fieldRequest);
+        IntentType intentType = intentResult.getType();
+
+        List<OllamaRequest.Message> messages = buildAutofillMessages(fieldRequest, snapshot, intentResult);
+        String fieldModel = modelFor(fieldRequest);
+        Map<String, Object> options = generation.optionsFor(intentType);
+        Mono<OllamaResponse> call = chat("autofill", priority, intentType, fieldModel, options,
+                OutputSchemas.autofillResponse(), messages);
+
+        // Short interactive fields: if the first attempt is slower than p95, race a second one
+        Optional<Duration> hedgeDelay = priority == Priority.INTERACTIVE && !isLongForm(intentType)
+                && circuitBreaker.getState() == OllamaCircuitBreaker.State.CLOSED
+                ? timeoutPolicy.hedgeDelayFor(intentType)
+                : Optional.empty();
+        if (hedgeDelay.isPresent()) {
+            Mono<OllamaResponse> hedge = Mono.defer(() -> {
+                if (scheduler.isSaturated()) {
+                    return Mono.empty();
+                }
+                hedgedRequests.incrementAndGet();
+                log.debug("Hedging slow {} call after {} ms", intentType, hedgeDelay.get().toMillis());
+                return chat("autofill", priority, intentType, fieldModel, options,
+                        OutputSchemas.autofillResponse(), messages);
+            });
+            call = hedged(call, hedgeDelay.get(), hedge);
+        }
+
+        return call
+                .map(response -> {
+                    AutofillResponse autofillResponse = parseOutput("autofill", response.getMessage().getContent(),
+                            OutputSchemas.autofillResponse(), AutofillResponse.class, JsonSanitizer::extractJsonObject);
+                    AutofillResponse guardedResponse = enforceIntentConstraints(intentType, autofillResponse, resume);
+                    cacheAnswer(fieldRequest, snapshot, guardedResponse);
+
+                    log.info("Autofill result for intent {}: {}", intentType, guardedResponse.getSuggestedValue());
+                    return guardedResponse;
+                })
+                .onErrorResume(OllamaCircuitBreaker.CircuitOpenException.class,
+                        e -> Mono.just(fallbackResponse(fieldRequest, resume, e)))
+                .onErrorResume(e -> !(e instanceof OllamaScheduler.BusyException), e -> {
+                    log.error("Failed to map field to resume value with Ollama", e);
+                    return Mono.just(new AutofillResponse("", 0.0, "Failed to map field: " + e.getMessage(),
+                            "llm_error"));
+                });
+    }
+
+    public static boolean isLongForm(IntentType intentType) {
+        return intentType == IntentType.MOTIVATION_STATEMENT || intentType == IntentType.COVER_LETTER;
+    }
+
+    /**
+     * Maps a field while streaming the answer as it is generated.
+     * Long-form intents are generated as plain text with {@code stream=true}; the Ollama
+     * connection is cancelled once the field's length or sentence budget is reached.
+     * Every other field resolves as usual and is emitted as a single "done" event.
+     */
+    public Flux<AutofillStreamEvent> streamFieldValue(AutofillRequest fieldRequest, ResumeSnapshot snapshot) {
+        return Flux.defer(() -> {
+            AutofillResponse resolved = resolveWithoutLlm(fieldRequest, snapshot);
+            if (resolved != null) {
+                return Flux.just(AutofillStreamEvent.done(resolved));
+            }
+
+            FieldIntentClassifier.IntentResult intentResult = FieldIntentClassifier.classify(fieldRequest);
+            IntentType intentType = intentResult.getType();
+            if (!isLongForm(intentType)) {
+                return mapFieldWithLlm(fieldRequest, snapshot, Priority.INTERACTIVE)
+                        .map(AutofillStreamEvent::done).flux();
+            }
+
+            LongFormBudget budget = new LongFormBudget(streamMaxChars,
+                    intentType == IntentType.COVER_LETTER ? coverLetterMaxSentences : streamMaxSentences);
+            StringBuilder text = new StringBuilder();
+
+            log.info("Streaming long-form answer for field {} (intent: {})", fieldRequest.getFieldLabel(), intentType);
+            List<OllamaRequest.Message> messages = buildLongFormMessages(fieldRequest, snapshot, intentResult);
+            int promptTokens = TokenEstimator.estimate(messages);
+            Flux<AutofillStreamEvent> deltas = chatStream(Priority.INTERACTIVE, modelFor(fieldRequest),
+                            generation.optionsFor(intentType), messages)
+                    .takeUntil(OllamaResponse::isDone)
+                    .doOnNext(chunk -> {
+                        if (chunk.isDone()) {
+                            recordEval("autofill_stream", promptTokens, chunk);
+                        }
+                    })
+                    .filter(chunk -> chunk.getMessage() != null && chunk.getMessage().getContent() != null
+                            && !chunk.getMessage().getContent().isEmpty())
+                    .map(chunk -> chunk.getMessage().getContent())
+                    .doOnNext(text::append)
+                    // Cancelling here closes the connection, which stops generation in Ollama
+                    .takeUntil(delta -> budget.isReached(text))
+                    .map(AutofillStreamEvent::delta);
+
+            Mono<AutofillStreamEvent> done = Mono.fromSupplier(() -> {
+                String value = budget.trim(text.toString());
+                AutofillResponse guardedResponse = enforceIntentConstraints(intentType,
+                        new AutofillResponse(value.isEmpty() ? "EMPTY" : value, 0.75,
+                                "Generated from resume experience and skills", "llm_stream"),
+                        snapshot.getResume());
+                cacheAnswer(fieldRequest, snapshot, guardedResponse);
+
+                log.info("Streamed {} chars for intent {}", guardedResponse.getSuggestedValue().length(), intentType);
+                return AutofillStreamEvent.done(guardedResponse);
+            });
+
+            return deltas.concatWith(done)
+                    .onErrorResume(e -> {
+                        if (e instanceof OllamaScheduler.BusyException) {
+                            return Mono.just(AutofillStreamEvent.done(busyResponse(e)));
+                        }
+                        if (e instanceof OllamaCircuitBreaker.CircuitOpenException) {
+                            return Mono.just(AutofillStreamEvent.done(
+                                    fallbackResponse(fieldRequest, snapshot.getResume(), e)));
+                        }
+                        log.error("Failed to stream field value from Ollama", e);
+                        return Mono.just(AutofillStreamEvent.done(new AutofillResponse("", 0.0,
+                                "Failed to map field: " + e.getMessage(), "llm_error")));
+                    });
+        });
+    }
+
+    /**
+     * Races {@code hedge} against {@code primary} once {@code delay} passes without an
+     * answer. A primary that fails before then is reported at once, without a hedge.
+     */
+    static <T> Mono<T> hedged(Mono<T> primary, Duration delay, Mono<T> hedge) {
+        return Mono.defer(() -> {
+            Sinks.One<Throwable> primaryFailed = Sinks.one();
+            Mono<T> delayedHedge = Mono.delay(delay)
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> hedge);
+            return Mono.firstWithValue(primary.doOnError(primaryFailed::tryEmitValue), delayedHedge)
+                    .onErrorMap(NoSuchElementException.class, OllamaService::firstAttemptError);
+        });
+    }
+
+    // firstWithValue reports all failed attempts as one composite error; keep the first one
+    private static Throwable firstAttemptError(NoSuchElementException e) {
+        List<Throwable> errors = e.getCause() != null ? Exceptions.unwrapMultiple(e.getCause()) : List.of();
+        return errors.isEmpty() ? e : errors.get(0);
+    }
+
+    /**
+     * Best deterministic answer for a field while Ollama is unavailable. Not cached.
+     */
+    AutofillResponse fallbackResponse(AutofillRequest fieldRequest, StructuredResume resume, Throwable e) {
+        FieldExtractor.ExtractedValue simpleValue = FieldExtractor.extractValue(
+                fieldRequest.getFieldLabel(),
+                fieldRequest.getFieldName(),
+                fieldRequest.getFieldType(),
+                resume);
+        if (simpleValue.value.isEmpty()) {
+            return new AutofillResponse("", 0.0, e.getMessage(), "circuit_open");
+        }
+        return new AutofillResponse(simpleValue.value, simpleValue.confidence,
+                simpleValue.reasoning + " (Ollama unavailable)", "fallback_extraction");
+    }
+
+    static AutofillResponse busyResponse(Throwable e) {
+        return new AutofillResponse("", 0.0, e.getMessage(), "busy");
+    }
+
+    static AutofillResponse copyOf(AutofillResponse response) {
+        return new AutofillResponse(response.getSuggestedValue(), response.getConfidence(),
+                response.getReasoning(), response.getFieldMatched());
+    }
+
+    /**
+     * Cache key covering everything the field's prompt is built from: the prompt layout,
+     * resume encoding and prompt version, and the whole resume in the resume-prefix layout,
+     * otherwise the sections the intent's focused context reads.
+     */
+    String cacheKey(AutofillRequest fieldRequest, ResumeSnapshot snapshot) {
+        IntentType intentType = FieldIntentClassifier.classify(fieldRequest).getType();
+        String resumeFingerprint = isResumePrefixLayout()
+                ? snapshot.getFingerprint()
+                : snapshot.getContextFingerprint(intentType);
+        String promptConfig = promptLayout.toLowerCase(Locale.ROOT) + ","
+                + snapshot.getEncoding().name().toLowerCase(Locale.ROOT) + ",v" + PROMPT_VERSION;
+        return AutofillAnswerCache.key(modelFor(fieldRequest), promptConfig, resumeFingerprint,
+                FieldSignature.of(fieldRequest));
+    }
+
+    void cacheAnswer(AutofillRequest fieldRequest, ResumeSnapshot snapshot, AutofillResponse response) {
+        // The LLM extraction replaces a heuristic snapshot within seconds; its answers
+        // must not outlive it
+        if (snapshot.getOrigin() == ResumeSnapshot.Origin.HEURISTIC) {
+            return;
+        }
+        answerCache.put(cacheKey(fieldRequest, snapshot), response);
+    }
+
+    /**
+     * Registers {@code generation} as the one running for {@code key}.
+     *
+     * @return the generation already running for {@code key}, or null if there was none
+     */
+    Mono<AutofillResponse> registerInFlight(String key, Mono<AutofillResponse> generation) {
+        Mono<AutofillResponse> leader = inFlight.putIfAbsent(key, generation);
+        if (leader != null) {
+            coalescedRequests.incrementAndGet();
+        }
+        return leader;
+    }
+
+    void removeInFlight(String key, Mono<AutofillResponse> generation) {
+        inFlight.remove(key, generation);
+    }
+
+    /**
+     * Model for a field: the request's own override, else the intent route, else the default.
+     */
+    public String modelFor(AutofillRequest fieldRequest) {
+        if (fieldRequest.getModel() != null && !fieldRequest.getModel().isBlank()) {
+            return fieldRequest.getModel().trim();
+        }
+        return modelFor(FieldIntentClassifier.classify(fieldRequest).getType());
+    }
+
+    private String modelFor(IntentType intentType) {
+        String routed = routing.getIntents().get(intentType);
+        return routed != null && !routed.isBlank() ? routed : model;
+    }
 
+    /**
+     * Models intents or extraction are routed to, besides the default model.
+     */
+    private Set<String> routedModels() {
+        Set<String> routed = new LinkedHashSet<>();
+        routing.getIntents().values().stream()
+                .filter(routedModel -> routedModel != null && !routedModel.isBlank())
+                .forEach(routed::add);
+        String extractionModel = routing.getExtractionModel();
+        if (extractionModel != null && !extractionModel.isBlank()) {
+            routed.add(extractionModel);
+        }
+        return routed;
+    }
+
+    public String getExtractionModel() {
+        String extractionModel = routing.getExtractionModel();
+        return extractionModel != null && !extractionModel.isBlank() ? extractionModel : model;
+    }
+
+    /**
+     * Sends a non-streaming chat call through the circuit breaker, the priority scheduler
+     * and the adaptive limiter. {@code intentType} selects the adaptive timeout; null uses
+     * the static one.
+     */
+    Mono<OllamaResponse> chat(String purpose, Priority priority, IntentType intentType, String chatModel,
+            Map<String, Object> options, JsonNode schema, List<OllamaRequest.Message> messages) {
+        int promptTokens = TokenEstimator.estimate(messages);
         OllamaRequest request = new OllamaRequest();
-        request.setModel(model);
+        request.setModel(chatModel);
+        request.setOptions(sizeContext(purpose, options, promptTokens));
         request.setStream(false);
-        request.setFormat("json");
-        request.setMessages(List.of(
-                new OllamaRequest.Message("user", prompt)));
+        // A schema constrains decoding to the shape we parse; older Ollama only knows "json"
+        request.setFormat(structuredOutput ? schema : "json");
+        request.setKeepAlive(keepAlive);
+        request.setMessages(messages);
+
+        return Mono.defer(() -> {
+                    if (!circuitBreaker.tryAcquire()) {
+                        return Mono.error(new OllamaCircuitBreaker.CircuitOpenException());
+                    }
+                    // The timeout starts once the call holds a slot, queue wait is not counted
+                    return scheduler.schedule(priority, () -> {
+                                long started = System.nanoTime();
+                                return endpoints.call(request.getModel(), client -> client.post()
+                                                .uri("/api/chat")
+                                                .bodyValue(request)
+                                                .retrieve()
+                                                .bodyToMono(OllamaResponse.class)
+                                                .timeout(timeoutPolicy.timeoutFor(intentType)))
+                                        .doOnNext(response -> {
+                                            long elapsed = System.nanoTime() - started;
+                                            limiter.onResponse(elapsed, response);
+                                            circuitBreaker.onSuccess();
+                                            routeLatencies.computeIfAbsent(chatModel, key -> new LatencyWindow(256))
+                                                    .record(elapsed / 1_000_000L);
+                                            if (intentType != null) {
+                                                timeoutPolicy.record(intentType, elapsed / 1_000_000L);
+                                            }
+                                        })
+                                        .doOnError(e -> {
+                                            limiter.onError(e);
+                                            circuitBreaker.onFailure(e);
+                                        });
+                            })
+                            .doOnCancel(circuitBreaker::onCancel)
+                            .doOnError(OllamaScheduler.BusyException.class, e -> circuitBreaker.onCancel());
+                })
+                .doOnNext(response -> recordEval(purpose, promptTokens, response))
+                .filter(response -> response.getMessage() != null)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Empty response from Ollama")));
+    }
+
+    /**
+     * Streams a chat completion. Chunks are decoded one NDJSON line at a time, so the
+     * whole answer is never aggregated in memory.
+     */
+    private Flux<OllamaResponse> chatStream(Priority priority, String chatModel, Map<String, Object> options,
+            List<OllamaRequest.Message> messages) {
+        OllamaRequest request = new OllamaRequest();
+        request.setModel(chatModel);
+        request.setOptions(sizeContext("autofill_stream", options, TokenEstimator.estimate(messages)));
+        request.setStream(true);
+        request.setKeepAlive(keepAlive);
+        request.setMessages(messages);
+
+        if (!circuitBreaker.tryAcquire()) {
+            return Flux.error(new OllamaCircuitBreaker.CircuitOpenException());
+        }
+
+        return scheduler.scheduleMany(priority, () -> {
+            long started = System.nanoTime();
+            return endpoints.callMany(request.getModel(), client -> client.post()
+                            .uri("/api/chat")
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToFlux(OllamaResponse.class)
+                            // Applies between chunks: a stalled generation fails instead of hanging
+                            .timeout(Duration.ofMillis(timeout)))
+                    .doOnNext(chunk -> {
+                        if (chunk.isDone()) {
+                            long elapsed = System.nanoTime() - started;
+                            limiter.onResponse(elapsed, chunk);
+                            circuitBreaker.onSuccess();
+                            routeLatencies.computeIfAbsent(chatModel, key -> new LatencyWindow(256))
+                                    .record(elapsed / 1_000_000L);
+                        }
+                    })
+                    .doOnError(e -> {
+                        limiter.onError(e);
+                        circuitBreaker.onFailure(e);
+                    });
+        })
+                .doOnCancel(circuitBreaker::onCancel)
+                .doOnError(OllamaScheduler.BusyException.class, e -> circuitBreaker.onCancel());
+    }
 
+    /**
+     * Parses model output into {@code type}. Output matching the schema is read as is;
+     * anything else goes through {@code repair} first and counts as repaired, or as a
+     * parse failure if it still cannot be read.
+     */
+    <T> T parseOutput(String purpose, String content, JsonNode schema, Class<T> type,
+            UnaryOperator<String> repair) {
+        OutputCounter output = outputCounter(purpose);
         try {
-            OllamaResponse response = webClient.post()
-                    .uri("/api/chat")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(OllamaResponse.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            if (response == null || response.getMessage() == null) {
-                throw new RuntimeException("Empty response from Ollama");
+            JsonNode tree = objectMapper.readTree(content);
+            if (OutputSchemas.validates(tree, schema)) {
+                T value = objectMapper.treeToValue(tree, type);
+                output.valid.increment();
+                return value;
             }
+        } catch (Exception e) {
+            log.debug("{} output is not valid JSON, repairing: {}", purpose, e.getMessage());
+        }
 
-            String jsonContent = response.getMessage().getContent();
-            AutofillResponse autofillResponse = objectMapper.readValue(jsonContent, AutofillResponse.class);
-            AutofillResponse guardedResponse = enforceIntentConstraints(intentType, autofillResponse, resume);
+        try {
+            T value = objectMapper.readValue(repair.apply(content), type);
+            output.repaired.increment();
+            return value;
+        } catch (Exception e) {
+            output.parseFailures.increment();
+            throw new IllegalStateException("Unparseable " + purpose + " output: " + e.getMessage(), e);
+        }
+    }
 
-            log.info("Autofill result for intent {}: {}", intentType, guardedResponse.getSuggestedValue());
-            return guardedResponse;
+    OutputCounter outputCounter(String purpose) {
+        return outputCounters.computeIfAbsent(purpose, key -> new OutputCounter());
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to map field to resume value with Ollama", e);
-            return new AutofillResponse("", 0.0, "Failed to map field: " + e.getMessage(), "llm_error");
+    /**
+     * Picks num_ctx for the estimated prompt size and logs the estimate.
+     */
+    private Map<String, Object> sizeContext(String purpose, Map<String, Object> options, int promptTokens) {
+        Map<String, Object> sized = generation.sizeContext(options, promptTokens);
+        Object numCtx = sized.get("num_ctx");
+        if (numCtx instanceof Integer size) {
+            contextSizes.computeIfAbsent(size, key -> new LongAdder()).increment();
         }
+        log.info("Ollama {} call: ~{} prompt tokens, num_ctx={}", purpose, promptTokens, numCtx);
+        return sized;
     }
 
-    private String buildExtractionPrompt(String resumeText) {
-        return """
-                You are a resume parser. Extract information and return ONLY valid JSON.
+    private void recordEval(String purpose, int estimatedPromptTokens, OllamaResponse response) {
+        if (response.getPromptEvalCount() == null && response.getTotalDuration() == null) {
+            return;
+        }
+        evalCounters.computeIfAbsent(purpose, key -> new EvalCounter()).record(estimatedPromptTokens, response);
+        log.debug("Ollama {} call: prompt_eval_count={}, prompt_eval_duration={}ms, total_duration={}ms",
+                purpose, response.getPromptEvalCount(), nanosToMillis(response.getPromptEvalDuration()),
+                nanosToMillis(response.getTotalDuration()));
+    }
 
-                CRITICAL RULES:
-                1. Return ONLY the JSON object, no markdown, no code blocks, no explanation
-                2. ALL string fields must be strings (use "" for empty, not arrays)
-                3. Use null for missing data
+    private static long nanosToMillis(Long nanos) {
+        return nanos == null ? 0L : nanos / 1_000_000L;
+    }
 
-                Required JSON structure:
-                {
-                  "personal_info": {
-                    "name": "string",
-                    "email": "string",
-                    "phone": "string",
-                    "linkedin": "string or null",
-                    "github": "string or null"
-                  },
-                  "education": [
-                    {
-                      "degree": "string",
-                      "institution": "string",
-                      "year": "string",
-                      "score": "string or null",
-                      "location": "string or null"
-                    }
-                  ],
-                  "experience": [
-                    {
-                      "title": "string",
-                      "company": "string",
-                      "duration": "string",
-                      "description": "string",
-                      "location": "string or null"
-                    }
-                  ],
-                  "skills": ["string1", "string2"]
-                }
+    boolean isResumePrefixLayout() {
+        return "resume-prefix".equalsIgnoreCase(promptLayout);
+    }
 
-                Resume text:
-                ---
-                """ + resumeText + """
-                ---
+    /**
+     * System message holding the whole resume. It only depends on the snapshot, so it is
+     * byte-identical for every field of the same resume version and Ollama can reuse the
+     * evaluated prefix from its prompt cache instead of re-reading the resume each call.
+     */
+    OllamaRequest.Message resumeSystemMessage(ResumeSnapshot snapshot) {
+        return new OllamaRequest.Message("system", """
+                You fill job application form fields for the candidate whose resume is below.
+                Use only information from this resume.
+
+                Resume:
+                """ + snapshot.getPromptJson());
+    }
 
-                Return ONLY the JSON object.
-                """;
+    private List<OllamaRequest.Message> buildAutofillMessages(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            FieldIntentClassifier.IntentResult intentResult) {
+        if (!isResumePrefixLayout()) {
+            return List.of(new OllamaRequest.Message("user",
+                    buildSmartAutofillPrompt(fieldRequest, snapshot, intentResult)));
+        }
+        return List.of(resumeSystemMessage(snapshot),
+                new OllamaRequest.Message("user", buildFieldQuestion(fieldRequest, snapshot, intentResult)));
     }
 
-    private String buildSmartAutofillPrompt(AutofillRequest fieldRequest, StructuredResume resume,
+    private List<OllamaRequest.Message> buildLongFormMessages(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
             FieldIntentClassifier.IntentResult intentResult) {
-        String focusedContext = buildFocusedContext(intentResult.getType(), resume);
-        String resumeJson = toPrettyJson(resume);
+        OllamaRequest.Message question = new OllamaRequest.Message("user",
+                buildLongFormPrompt(fieldRequest, snapshot, intentResult));
+        if (!isResumePrefixLayout()) {
+            return List.of(question);
+        }
+        return List.of(resumeSystemMessage(snapshot), question);
+    }
+
+    private String buildSmartAutofillPrompt(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            FieldIntentClassifier.IntentResult intentResult) {
+        // The focused context already holds the most relevant sections within the intent's
+        // token budget, the full resume is not repeated after it
+        String focusedContext = snapshot.getFocusedContext(intentResult.getType());
 
         return String.format("""
                 You are filling a job application form field.
@@ -215,7 +689,48 @@ public class OllamaService {
                 Resume Context (intent focused):
                 %s
 
-                Full Resume JSON:
+                Instructions:
+                1. Use only information from the resume that matches the field intent.
+                2. Do NOT repeat technical skills unless Field Intent = skill_list.
+                3. If no relevant data exists, respond with the exact string EMPTY.
+                4. Keep the response concise and aligned with the field intent.
+                5. Set confidence to 0.0 when returning EMPTY.
+
+                Return ONLY JSON in this format:
+                {
+                    "suggested_value": "value or EMPTY",
+                    "confidence": 0.0,
+                    "reasoning": "short explanation referencing resume",
+                    "field_matched": "which resume section you used"
+                }
+                """,
+                safe(fieldRequest.getFieldLabel()),
+                safe(fieldRequest.getFieldName()),
+                safe(fieldRequest.getFieldType()),
+                intentResult.getType().getDisplayName(),
+                focusedContext);
+    }
+
+    /**
+     * Field-specific part of the single-field prompt for the resume-prefix layout.
+     */
+    private String buildFieldQuestion(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            FieldIntentClassifier.IntentResult intentResult) {
+        IntentType intentType = intentResult.getType();
+        // The full resume is already in the system message; only repeat a focused slice
+        String focusedContext = ResumePromptRenderer.hasFocusedSection(intentType)
+                ? snapshot.getFocusedContext(intentType)
+                : "(use the resume above)";
+
+        return String.format("""
+                Fill this job application form field.
+
+                Field Label: %s
+                Field Name: %s
+                Field Type: %s
+                Field Intent: %s
+
+                Resume Context (intent focused):
                 %s
 
                 Instructions:
@@ -236,9 +751,32 @@ public class OllamaService {
                 safe(fieldRequest.getFieldLabel()),
                 safe(fieldRequest.getFieldName()),
                 safe(fieldRequest.getFieldType()),
+                intentType.getDisplayName(),
+                focusedContext);
+    }
+
+    private String buildLongFormPrompt(AutofillRequest fieldRequest, ResumeSnapshot snapshot,
+            FieldIntentClassifier.IntentResult intentResult) {
+        return String.format("""
+                You are writing an answer for a job application form field.
+
+                Field Label: %s
+                Field Intent: %s
+
+                Resume Context (intent focused):
+                %s
+
+                Instructions:
+                1. Write in first person, using only facts from the resume context.
+                2. Do NOT list technical skills; mention at most a few that matter.
+                3. Keep it short and specific. Stop after a few sentences.
+                4. If the resume has nothing relevant, respond with the exact string EMPTY.
+
+                Return ONLY the answer text, no JSON, no quotes, no preamble.
+                """,
+                safe(fieldRequest.getFieldLabel()),
                 intentResult.getType().getDisplayName(),
-                focusedContext,
-                resumeJson);
+                snapshot.getFocusedContext(intentResult.getType()));
     }
 
     private double requiredConfidence(IntentType intentType) {
@@ -270,7 +808,7 @@ public class OllamaService {
         };
     }
 
-    private AutofillResponse enforceIntentConstraints(IntentType intentType, AutofillResponse response,
+    AutofillResponse enforceIntentConstraints(IntentType intentType, AutofillResponse response,
             StructuredResume resume) {
         if (response == null) {
             return new AutofillResponse("", 0.0, "Model returned null response", "llm_error");
@@ -339,60 +877,7 @@ public class OllamaService {
         return matches >= threshold;
     }
 
-    private String buildFocusedContext(IntentType intentType, StructuredResume resume) {
-        if (resume == null) {
-            return "{}";
-        }
-
-        try {
-            ObjectNode root = objectMapper.createObjectNode();
-            switch (intentType) {
-                case SKILL_LIST -> root.set("skills", objectMapper.valueToTree(resume.getSkills()));
-                case EXPERIENCE_SUMMARY -> root.set("experience", objectMapper.valueToTree(resume.getExperience()));
-                case EDUCATION_INSTITUTION, EDUCATION_DEGREE, EDUCATION_YEAR ->
-                    root.set("education", objectMapper.valueToTree(resume.getEducation()));
-                case GITHUB_URL -> {
-                    ObjectNode profile = objectMapper.createObjectNode();
-                    if (resume.getPersonalInfo() != null) {
-                        profile.put("github", safe(resume.getPersonalInfo().getGithub()));
-                    }
-                    root.set("profile", profile);
-                }
-                case LINKEDIN_URL, PORTFOLIO_URL -> {
-                    ObjectNode profile = objectMapper.createObjectNode();
-                    if (resume.getPersonalInfo() != null) {
-                        profile.put("linkedin", safe(resume.getPersonalInfo().getLinkedin()));
-                    }
-                    root.set("profile", profile);
-                }
-                case MOTIVATION_STATEMENT -> {
-                    root.set("experience_highlights", objectMapper.valueToTree(resume.getExperience()));
-                    root.set("skills", objectMapper.valueToTree(resume.getSkills()));
-                }
-                default -> root.set("resume_snapshot", objectMapper.valueToTree(resume));
-            }
-
-            if (root.isEmpty()) {
-                root.set("resume_snapshot", objectMapper.valueToTree(resume));
-            }
-
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
-        } catch (Exception e) {
-            log.warn("Failed to build focused context for intent {}", intentType, e);
-            return "{}";
-        }
-    }
-
-    private String toPrettyJson(Object value) {
-        try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(value);
-        } catch (Exception e) {
-            log.warn("Failed to serialize object to JSON", e);
-            return "{}";
-        }
-    }
-
-    private String safe(String value) {
+    static String safe(String value) {
         return value == null ? "" : value;
     }
 
@@ -400,73 +885,81 @@ public class OllamaService {
         return value != null && !value.isBlank();
     }
 
-    public List<ModelSummary> listAvailableModels() {
-        try {
-            String rawResponse = webClient.get()
-                    .uri("/api/tags")
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            if (rawResponse == null) {
-                throw new RuntimeException("Empty response from Ollama when listing models");
-            }
+    /**
+     * Installed models, served from the background-refreshed catalogue unless
+     * {@code refresh} asks to re-read them from Ollama.
+     */
+    public Mono<List<ModelCatalog.ModelSummary>> listAvailableModels(boolean refresh) {
+        return (refresh ? modelCatalog.reload() : modelCatalog.getModels())
+                .onErrorMap(e -> {
+                    log.error("Failed to fetch available Ollama models", e);
+                    return new RuntimeException("Unable to fetch available models: " + e.getMessage(), e);
+                });
+    }
 
-            JsonNode root = objectMapper.readTree(rawResponse);
-            JsonNode modelsNode = root.get("models");
-
-            List<ModelSummary> summaries = new ArrayList<>();
-            if (modelsNode != null && modelsNode.isArray()) {
-                for (JsonNode node : modelsNode) {
-                    String name = node.path("name").asText();
-                    long sizeBytes = node.path("size").asLong(0L);
-                    String modifiedAt = node.path("modified_at").asText(null);
-                    String family = null;
-
-                    JsonNode detailsNode = node.path("details");
-                    if (detailsNode != null && !detailsNode.isMissingNode()) {
-                        JsonNode familiesNode = detailsNode.path("families");
-                        if (familiesNode.isArray() && familiesNode.size() > 0) {
-                            family = familiesNode.get(0).asText(null);
-                        } else {
-                            family = detailsNode.path("family").asText(null);
-                        }
+    public Mono<Boolean> isModelAvailable(String candidateModel) {
+        return modelCatalog.isAvailable(candidateModel)
+                .doOnNext(available -> {
+                    if (!available) {
+                        log.warn("Model '{}' not found in Ollama", candidateModel);
                     }
+                })
+                .onErrorMap(e -> {
+                    log.error("Error while verifying model {}", candidateModel, e);
+                    return new RuntimeException("Failed to verify model: " + e.getMessage(), e);
+                });
+    }
 
-                    summaries.add(new ModelSummary(name, family, sizeBytes, modifiedAt));
-                }
-            }
-
-            return summaries;
-
-        } catch (Exception e) {
-            log.error("Failed to fetch available Ollama models", e);
-            throw new RuntimeException("Unable to fetch available models: " + e.getMessage(), e);
-        }
+    /**
+     * Counters for the Ollama call path.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("in_flight_generations", inFlight.size());
+        stats.put("generations_saved", coalescedRequests.get());
+        stats.put("prompt_layout", promptLayout);
+        Map<String, Object> promptEval = new LinkedHashMap<>();
+        evalCounters.forEach((purpose, counter) -> promptEval.put(purpose, counter.toMap()));
+        stats.put("prompt_eval", promptEval);
+        Map<Integer, Long> numCtx = new TreeMap<>();
+        contextSizes.forEach((size, calls) -> numCtx.put(size, calls.sum()));
+        stats.put("num_ctx", numCtx);
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("structured_output", structuredOutput);
+        outputCounters.forEach((purpose, counter) -> output.put(purpose, counter.toMap()));
+        stats.put("output", output);
+        stats.put("scheduler", scheduler.getStats());
+        stats.put("limiter", limiter.getStats());
+        stats.put("circuit_breaker", circuitBreaker.getStats());
+        stats.put("hedged_requests", hedgedRequests.get());
+        stats.put("latency", timeoutPolicy.getStats());
+        stats.put("endpoints", endpoints.getStats());
+        stats.put("routes", getRouteStats());
+        stats.put("model_catalog", modelCatalog.getStats());
+        return stats;
     }
 
-    public boolean isModelAvailable(String candidateModel) {
-        try {
-            webClient.post()
-                    .uri("/api/show")
-                    .bodyValue(Map.of("model", candidateModel))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-            return true;
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                log.warn("Model '{}' not found in Ollama", candidateModel);
-                return false;
+    /**
+     * Latency per model, with the intents routed to it.
+     */
+    private Map<String, Object> getRouteStats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        routeLatencies.forEach((routeModel, window) -> {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("calls", window.count());
+            route.put("avg_ms", window.average());
+            route.put("p50_ms", window.percentile(50));
+            route.put("p95_ms", window.percentile(95));
+            List<String> intents = new ArrayList<>();
+            for (IntentType intentType : IntentType.values()) {
+                if (routeModel.equals(modelFor(intentType))) {
+                    intents.add(intentType.name().toLowerCase(Locale.ROOT));
+                }
             }
-            log.error("Error while verifying model {}", candidateModel, e);
-            throw new RuntimeException("Failed to verify model: " + e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Unexpected error while verifying model {}", candidateModel, e);
-            throw new RuntimeException("Failed to verify model: " + e.getMessage(), e);
-        }
+            route.put("intents", intents);
+            routes.put(routeModel, route);
+        });
+        return routes;
     }
 
     public String getCurrentModel() {
@@ -475,36 +968,80 @@ public class OllamaService {
 
     public void setModel(String newModel) {
         log.info("Switching Ollama model from {} to {}", this.model, newModel);
+        String previousModel = this.model;
         this.model = newModel;
-    }
-
-    public static class ModelSummary {
-        private final String name;
-        private final String family;
-        private final long sizeBytes;
-        private final String modifiedAt;
-
-        public ModelSummary(String name, String family, long sizeBytes, String modifiedAt) {
-            this.name = name;
-            this.family = family;
-            this.sizeBytes = sizeBytes;
-            this.modifiedAt = modifiedAt;
+        if (!newModel.equals(previousModel)) {
+            // Answers from the previous model must not be served for the new one
+            answerCache.invalidateAll();
+            modelCatalog.invalidate();
+            if (preload) {
+                // Keep the previous model loaded if some intent is still routed to it
+                boolean stillRouted = previousModel != null && routedModels().contains(previousModel);
+                modelLifecycle.switchModel(stillRouted ? null : previousModel, newModel);
+            }
         }
+    }
 
-        public String getName() {
-            return name;
+    /**
+     * Running totals of the timing fields Ollama returns with each completed call.
+     */
+    private static final class EvalCounter {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder estimatedPromptTokens = new LongAdder();
+        private final LongAdder promptEvalCount = new LongAdder();
+        private final LongAdder promptEvalNanos = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(int estimatedTokens, OllamaResponse response) {
+            calls.increment();
+            estimatedPromptTokens.add(estimatedTokens);
+            promptEvalCount.add(valueOf(response.getPromptEvalCount()));
+            promptEvalNanos.add(valueOf(response.getPromptEvalDuration()));
+            loadNanos.add(valueOf(response.getLoadDuration()));
+            totalNanos.add(valueOf(response.getTotalDuration()));
         }
 
-        public String getFamily() {
-            return family;
+        Map<String, Object> toMap() {
+            long count = Math.max(1L, calls.sum());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("avg_estimated_prompt_tokens", estimatedPromptTokens.sum() / count);
+            map.put("avg_prompt_eval_count", promptEvalCount.sum() / count);
+            map.put("avg_prompt_eval_ms", promptEvalNanos.sum() / count / 1_000_000L);
+            map.put("avg_total_ms", totalNanos.sum() / count / 1_000_000L);
+            map.put("total_prompt_eval_count", promptEvalCount.sum());
+            map.put("total_prompt_eval_ms", promptEvalNanos.sum() / 1_000_000L);
+            map.put("total_ms", totalNanos.sum() / 1_000_000L);
+            map.put("total_load_ms", loadNanos.sum() / 1_000_000L);
+            return map;
         }
 
-        public long getSizeBytes() {
-            return sizeBytes;
+        private static long valueOf(Long value) {
+            return value == null ? 0L : value;
         }
+    }
 
-        public String getModifiedAt() {
-            return modifiedAt;
+    /**
+     * How model output was parsed. Repairs, parse failures and retried fields are
+     * generations that did not produce a usable answer on their own.
+     */
+    static final class OutputCounter {
+        final LongAdder valid = new LongAdder();
+        final LongAdder repaired = new LongAdder();
+        final LongAdder parseFailures = new LongAdder();
+        final LongAdder retriedFields = new LongAdder();
+
+        Map<String, Object> toMap() {
+            long responses = valid.sum() + repaired.sum() + parseFailures.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("responses", responses);
+            map.put("valid", valid.sum());
+            map.put("repaired", repaired.sum());
+            map.put("parse_failures", parseFailures.sum());
+            map.put("retried_fields", retriedFields.sum());
+            map.put("parse_failure_rate", responses == 0 ? 0.0 : (double) parseFailures.sum() / responses);
+            return map;
         }
     }
 }
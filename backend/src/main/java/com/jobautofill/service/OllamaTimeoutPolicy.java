@@ -0,0 +1,99 @@
+package com.jobautofill.service;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.LatencyWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-intent timeouts and hedge delays derived from observed Ollama latency.
+ * Until an intent has {@code min-samples} successful calls the static
+ * {@code ollama.timeout} applies and no hedging happens.
+ */
+@Service
+public class OllamaTimeoutPolicy {
+
+    private final Map<IntentType, LatencyWindow> latencies = new EnumMap<>(IntentType.class);
+
+    @Value("${ollama.timeout}")
+    private long staticTimeout;
+
+    @Value("${ollama.resilience.timeout.adaptive:true}")
+    private boolean adaptive;
+
+    @Value("${ollama.resilience.timeout.min:5000}")
+    private long minTimeout;
+
+    @Value("${ollama.resilience.timeout.p99-multiplier:3.0}")
+    private double p99Multiplier;
+
+    @Value("${ollama.resilience.min-samples:20}")
+    private int minSamples;
+
+    @Value("${ollama.resilience.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    public OllamaTimeoutPolicy() {
+        for (IntentType intentType : IntentType.values()) {
+            latencies.put(intentType, new LatencyWindow(256));
+        }
+    }
+
+    /**
+     * Records how long a successful call for {@code intentType} held its slot.
+     */
+    public void record(IntentType intentType, long millis) {
+        latencies.get(intentType).record(millis);
+    }
+
+    /**
+     * p99 latency times the multiplier, kept between {@code min} and the static timeout.
+     */
+    public Duration timeoutFor(IntentType intentType) {
+        LatencyWindow window = intentType != null ? latencies.get(intentType) : null;
+        if (!adaptive || window == null || window.size() < minSamples) {
+            return Duration.ofMillis(staticTimeout);
+        }
+        long derived = (long) (window.percentile(99) * p99Multiplier);
+        return Duration.ofMillis(Math.max(minTimeout, Math.min(staticTimeout, derived)));
+    }
+
+    /**
+     * Delay after which a second attempt is sent: the intent's p95 latency.
+     */
+    public Optional<Duration> hedgeDelayFor(IntentType intentType) {
+        LatencyWindow window = latencies.get(intentType);
+        if (!hedgingEnabled || window.size() < minSamples) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofMillis(Math.max(1L, window.percentile(95))));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("adaptive", adaptive);
+        stats.put("hedging", hedgingEnabled);
+        Map<String, Object> intents = new LinkedHashMap<>();
+        latencies.forEach((intentType, window) -> {
+            if (window.size() == 0) {
+                return;
+            }
+            Map<String, Object> intentStats = new LinkedHashMap<>();
+            intentStats.put("samples", window.count());
+            intentStats.put("p50_ms", window.percentile(50));
+            intentStats.put("p95_ms", window.percentile(95));
+            intentStats.put("p99_ms", window.percentile(99));
+            intentStats.put("timeout_ms", timeoutFor(intentType).toMillis());
+            intents.put(intentType.name().toLowerCase(Locale.ROOT), intentStats);
+        });
+        stats.put("intents", intents);
+        return stats;
+    }
+}
@@ -0,0 +1,526 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.model.OllamaRequest;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.service.OllamaScheduler.Priority;
+import com.jobautofill.util.JsonSanitizer;
+import com.jobautofill.util.LatencyWindow;
+import com.jobautofill.util.OutputSchemas;
+import com.jobautofill.util.ResumePreExtractor;
+import com.jobautofill.util.ResumeSectionSplitter;
+import com.jobautofill.util.ResumeSectionSplitter.Section;
+import com.jobautofill.util.TokenEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Extracts the structured resume from the PDF text with Ollama.
+ * Personal info and skills are pre-extracted with rules first, and the LLM is only
+ * asked for the sections still missing, in one prompt or one prompt per section.
+ */
+@Service
+public class ResumeExtractionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumeExtractionService.class);
+
+    public static final String SINGLE_EXTRACTION = "single";
+    public static final String SECTIONED_EXTRACTION = "sectioned";
+
+    // Bump when the extraction prompts or schemas change, so cached extractions are redone
+    private static final String EXTRACTION_PROMPT_VERSION = "3";
+
+    private static final Set<Section> EXTRACTED_SECTIONS =
+            EnumSet.of(Section.CONTACT, Section.EDUCATION, Section.EXPERIENCE, Section.SKILLS);
+
+    private final OllamaService ollamaService;
+    private final ObjectMapper objectMapper;
+    private final GenerationProperties generation;
+
+    // Resume extractions per mode
+    private final Map<String, ExtractionCounter> extractionCounters = new ConcurrentHashMap<>();
+    private final PreExtractionCounter preExtractionCounter = new PreExtractionCounter();
+
+    @Value("${autofill.extraction.mode:single}")
+    private String extractionMode;
+
+    @Value("${autofill.extraction.pre-extract:true}")
+    private boolean preExtract;
+
+    public ResumeExtractionService(OllamaService ollamaService, ObjectMapper objectMapper,
+            GenerationProperties generation) {
+        this.ollamaService = ollamaService;
+        this.objectMapper = objectMapper;
+        this.generation = generation;
+    }
+
+    public Mono<StructuredResume> extractStructuredResume(String resumeText) {
+        return extractStructuredResume(resumeText, extractionMode, ProgressListener.NONE);
+    }
+
+    public Mono<StructuredResume> extractStructuredResume(String resumeText, ProgressListener progress) {
+        return extractStructuredResume(resumeText, extractionMode, progress);
+    }
+
+    public Mono<StructuredResume> extractStructuredResume(String resumeText, String mode) {
+        return extractStructuredResume(resumeText, mode, ProgressListener.NONE);
+    }
+
+    /**
+     * Extracts a structured resume with one prompt for the whole text ("single") or one
+     * smaller prompt per resume section, run concurrently and merged ("sectioned").
+     * Sectioned extraction uses the single prompt when the headings are not recognised
+     * or a section fails.
+     * Personal info and skills found by {@link ResumePreExtractor} are not asked of the
+     * LLM, and pre-extracted values replace the LLM's where both exist.
+     * {@code progress} is told how many prompts are sent and when each is answered.
+     */
+    public Mono<StructuredResume> extractStructuredResume(String resumeText, String mode,
+            ProgressListener progress) {
+        boolean sectioned = SECTIONED_EXTRACTION.equalsIgnoreCase(mode);
+        ExtractionCounter counter = extractionCounters.computeIfAbsent(
+                sectioned ? SECTIONED_EXTRACTION : SINGLE_EXTRACTION, key -> new ExtractionCounter());
+
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            Map<Section, String> sections = ResumeSectionSplitter.split(resumeText);
+            ResumePreExtractor.Result preExtracted = preExtract
+                    ? ResumePreExtractor.extract(resumeText, sections)
+                    : null;
+            Set<Section> wanted = sectionsToExtract(preExtracted);
+            if (preExtracted != null) {
+                recordPreExtraction(resumeText, sections, preExtracted, wanted, sectioned);
+            }
+
+            Mono<StructuredResume> extraction = sectioned
+                    ? extractBySection(resumeText, sections, wanted, counter, progress)
+                    : extractWhole(resumeText, sections, wanted, progress);
+            return extraction
+                    .map(ResumeExtractionService::fillMissingSections)
+                    .map(structuredResume -> applyPreExtraction(structuredResume, preExtracted))
+                    .doOnNext(structuredResume -> {
+                        counter.record(nanosToMillis(System.nanoTime() - started), true);
+                        log.info("Successfully extracted structured resume");
+                    })
+                    .doOnError(e -> !(e instanceof OllamaScheduler.BusyException),
+                            e -> counter.record(nanosToMillis(System.nanoTime() - started), false));
+        }).onErrorMap(e -> !(e instanceof OllamaScheduler.BusyException), e -> {
+            log.error("Failed to extract structured resume", e);
+            return new RuntimeException("Ollama extraction failed: " + e.getMessage(), e);
+        });
+    }
+
+    private static Set<Section> sectionsToExtract(ResumePreExtractor.Result preExtracted) {
+        Set<Section> wanted = EnumSet.copyOf(EXTRACTED_SECTIONS);
+        if (preExtracted != null && preExtracted.hasPersonalInfo()) {
+            wanted.remove(Section.CONTACT);
+        }
+        if (preExtracted != null && preExtracted.hasSkills()) {
+            wanted.remove(Section.SKILLS);
+        }
+        return wanted;
+    }
+
+    private Mono<StructuredResume> extractWhole(String resumeText, Map<Section, String> sections,
+            Set<Section> wanted, ProgressListener progress) {
+        JsonNode schema = OutputSchemas.structuredResume(sectionProperties(wanted));
+        return Mono.defer(() -> {
+            progress.onPrompts(0, 1);
+            String extractionModel = ollamaService.getExtractionModel();
+            log.info("Starting resume extraction of {} with Ollama (model: {})", wanted, extractionModel);
+            String prompt = buildExtractionPrompt(extractionText(resumeText, sections, wanted), wanted);
+            return ollamaService.chat("extraction", Priority.BACKGROUND, null, extractionModel,
+                    generation.extractionOptions(), schema, List.of(new OllamaRequest.Message("user", prompt)));
+        }).map(response -> ollamaService.parseOutput("extraction", response.getMessage().getContent(), schema,
+                StructuredResume.class, raw -> JsonSanitizer.sanitizeOllamaJson(raw, objectMapper)))
+                .doOnNext(structuredResume -> progress.onPrompts(1, 1));
+    }
+
+    private Mono<StructuredResume> extractBySection(String resumeText, Map<Section, String> sections,
+            Set<Section> wanted, ExtractionCounter counter, ProgressListener progress) {
+        return Mono.defer(() -> {
+            if (!ResumeSectionSplitter.isSplittable(sections)) {
+                log.info("Resume sections not recognised ({}), extracting with a single prompt", sections.keySet());
+                counter.fallbacks.increment();
+                return extractWhole(resumeText, sections, wanted, progress);
+            }
+
+            String extractionModel = ollamaService.getExtractionModel();
+            log.info("Starting sectioned resume extraction of {} with Ollama (model: {})", wanted, extractionModel);
+            List<Map.Entry<Section, String>> prompts = sections.entrySet().stream()
+                    .filter(section -> wanted.contains(section.getKey()))
+                    .toList();
+            AtomicInteger answered = new AtomicInteger();
+            progress.onPrompts(0, prompts.size());
+            return Flux.fromIterable(prompts)
+                    .flatMap(section -> extractSection(section.getKey(), section.getValue(), extractionModel)
+                            .doOnNext(sectionResume -> progress.onPrompts(answered.incrementAndGet(),
+                                    prompts.size())))
+                    .reduce(new StructuredResume(), ResumeExtractionService::mergeSection)
+                    .onErrorResume(e -> !(e instanceof OllamaScheduler.BusyException), e -> {
+                        log.warn("Sectioned extraction failed, extracting with a single prompt: {}", e.getMessage());
+                        counter.fallbacks.increment();
+                        return extractWhole(resumeText, sections, wanted, progress);
+                    });
+        });
+    }
+
+    private Mono<StructuredResume> extractSection(Section section, String sectionText, String extractionModel) {
+        String purpose = "extraction_" + section.name().toLowerCase(Locale.ROOT);
+        JsonNode schema = OutputSchemas.structuredResume(List.of(sectionProperty(section)));
+        String prompt = buildSectionExtractionPrompt(section, sectionText);
+        return ollamaService.chat(purpose, Priority.BACKGROUND, null, extractionModel, generation.extractionOptions(),
+                        schema, List.of(new OllamaRequest.Message("user", prompt)))
+                .map(response -> ollamaService.parseOutput(purpose, response.getMessage().getContent(), schema,
+                        StructuredResume.class,
+                        raw -> JsonSanitizer.sanitizeOllamaJson(JsonSanitizer.extractJsonObject(raw), objectMapper)));
+    }
+
+    /**
+     * Resume text for the single prompt. When pre-extraction made some recognised
+     * sections unnecessary, only the remaining ones are sent.
+     */
+    private static String extractionText(String resumeText, Map<Section, String> sections, Set<Section> wanted) {
+        if (wanted.containsAll(EXTRACTED_SECTIONS) || !ResumeSectionSplitter.isSplittable(sections)) {
+            return resumeText;
+        }
+        StringBuilder text = new StringBuilder();
+        sections.forEach((section, sectionText) -> {
+            if (wanted.contains(section)) {
+                text.append(section.name()).append('\n').append(sectionText).append('\n');
+            }
+        });
+        return text.toString().strip();
+    }
+
+    private static List<String> sectionProperties(Set<Section> sections) {
+        return sections.stream().map(ResumeExtractionService::sectionProperty).toList();
+    }
+
+    private static String sectionProperty(Section section) {
+        return switch (section) {
+            case CONTACT -> "personal_info";
+            case EDUCATION -> "education";
+            case EXPERIENCE -> "experience";
+            case SKILLS -> "skills";
+            case OTHER -> throw new IllegalArgumentException("Section is not extracted: " + section);
+        };
+    }
+
+    /**
+     * Overwrites LLM values with the unambiguous pre-extracted ones, counting
+     * disagreements. Where the contact block offered a choice the LLM's value is kept.
+     */
+    private StructuredResume applyPreExtraction(StructuredResume resume, ResumePreExtractor.Result preExtracted) {
+        if (preExtracted == null) {
+            return resume;
+        }
+        StructuredResume.PersonalInfo found = preExtracted.getUnambiguousPersonalInfo();
+        if (resume.getPersonalInfo() == null) {
+            resume.setPersonalInfo(new StructuredResume.PersonalInfo());
+        }
+        StructuredResume.PersonalInfo info = resume.getPersonalInfo();
+        info.setName(preferPreExtracted(found.getName(), info.getName()));
+        info.setEmail(preferPreExtracted(found.getEmail(), info.getEmail()));
+        info.setPhone(preferPreExtracted(found.getPhone(), info.getPhone()));
+        info.setLinkedin(preferPreExtracted(found.getLinkedin(), info.getLinkedin()));
+        info.setGithub(preferPreExtracted(found.getGithub(), info.getGithub()));
+        if (preExtracted.hasSkills()) {
+            resume.setSkills(new ArrayList<>(preExtracted.getSkills()));
+        }
+        return resume;
+    }
+
+    private String preferPreExtracted(String preExtracted, String generated) {
+        if (preExtracted == null) {
+            return generated;
+        }
+        if (generated != null && !generated.isBlank() && !generated.strip().equalsIgnoreCase(preExtracted)) {
+            preExtractionCounter.conflicts.increment();
+            log.debug("Pre-extracted value '{}' replaces LLM value '{}'", preExtracted, generated);
+        }
+        return preExtracted;
+    }
+
+    /**
+     * Logs and counts the tokens pre-extraction saves: the prompt parts no longer sent,
+     * and the JSON of the pre-extracted sections the LLM no longer generates.
+     */
+    private void recordPreExtraction(String resumeText, Map<Section, String> sections,
+            ResumePreExtractor.Result preExtracted, Set<Section> wanted, boolean sectioned) {
+        int promptTokensSaved;
+        if (sectioned && ResumeSectionSplitter.isSplittable(sections)) {
+            promptTokensSaved = 0;
+            for (Map.Entry<Section, String> section : sections.entrySet()) {
+                if (!wanted.contains(section.getKey())) {
+                    promptTokensSaved += TokenEstimator.estimate(
+                            buildSectionExtractionPrompt(section.getKey(), section.getValue()));
+                }
+            }
+        } else {
+            promptTokensSaved = TokenEstimator.estimate(buildExtractionPrompt(resumeText, EXTRACTED_SECTIONS))
+                    - TokenEstimator.estimate(buildExtractionPrompt(
+                            extractionText(resumeText, sections, wanted), wanted));
+        }
+
+        Map<String, Object> skipped = new LinkedHashMap<>();
+        if (!wanted.contains(Section.CONTACT)) {
+            skipped.put("personal_info", preExtracted.getPersonalInfo());
+        }
+        if (!wanted.contains(Section.SKILLS)) {
+            skipped.put("skills", preExtracted.getSkills());
+        }
+        int outputTokensSaved = 0;
+        if (!skipped.isEmpty()) {
+            try {
+                outputTokensSaved = TokenEstimator.estimate(objectMapper.writeValueAsString(skipped));
+            } catch (Exception e) {
+                log.debug("Failed to estimate output tokens saved: {}", e.getMessage());
+            }
+        }
+
+        preExtractionCounter.record(preExtracted.filledFields(), EXTRACTED_SECTIONS.size() - wanted.size(),
+                promptTokensSaved, outputTokensSaved);
+        log.info("Pre-extraction filled {} fields, LLM asked for {}: ~{} prompt and ~{} output tokens saved",
+                preExtracted.filledFields(), wanted, promptTokensSaved, outputTokensSaved);
+    }
+
+    private static StructuredResume mergeSection(StructuredResume merged, StructuredResume section) {
+        if (section.getPersonalInfo() != null) {
+            merged.setPersonalInfo(section.getPersonalInfo());
+        }
+        if (section.getEducation() != null) {
+            merged.setEducation(section.getEducation());
+        }
+        if (section.getExperience() != null) {
+            merged.setExperience(section.getExperience());
+        }
+        if (section.getSkills() != null) {
+            merged.setSkills(section.getSkills());
+        }
+        return merged;
+    }
+
+    /**
+     * Sections missing from the resume text come back empty, as the single prompt returns them.
+     */
+    private static StructuredResume fillMissingSections(StructuredResume resume) {
+        if (resume.getPersonalInfo() == null) {
+            resume.setPersonalInfo(new StructuredResume.PersonalInfo());
+        }
+        if (resume.getEducation() == null) {
+            resume.setEducation(new ArrayList<>());
+        }
+        if (resume.getExperience() == null) {
+            resume.setExperience(new ArrayList<>());
+        }
+        if (resume.getSkills() == null) {
+            resume.setSkills(new ArrayList<>());
+        }
+        return resume;
+    }
+
+    /**
+     * What an extraction depends on besides the resume text: model, mode, pre-extraction
+     * and prompt version. Cached extractions are only reused while it is unchanged.
+     */
+    public String getExtractionSignature() {
+        return ollamaService.getExtractionModel() + "|" + extractionMode.toLowerCase(Locale.ROOT) + "|"
+                + (preExtract ? "pre-extract" : "llm-only") + "|" + EXTRACTION_PROMPT_VERSION;
+    }
+
+    private String buildExtractionPrompt(String resumeText, Set<Section> sections) {
+        return """
+                You are a resume parser. Extract information and return ONLY valid JSON.
+
+                CRITICAL RULES:
+                1. Return ONLY the JSON object, no markdown, no code blocks, no explanation
+                2. ALL string fields must be strings (use "" for empty, not arrays)
+                3. Use null for missing data
+
+                Required JSON structure:
+                %s
+                Resume text:
+                ---
+                %s
+                ---
+
+                Return ONLY the JSON object.
+                """.formatted(jsonStructure(sections), resumeText);
+    }
+
+    private String buildSectionExtractionPrompt(Section section, String sectionText) {
+        return """
+                You are a resume parser. Extract the %s section of a resume and return ONLY valid JSON.
+
+                CRITICAL RULES:
+                1. Return ONLY the JSON object, no markdown, no code blocks, no explanation
+                2. ALL string fields must be strings (use "" for empty, not arrays)
+                3. Use null for missing data
+
+                Required JSON structure:
+                %s
+                Resume section text:
+                ---
+                %s---
+
+                Return ONLY the JSON object.
+                """.formatted(section.name().toLowerCase(Locale.ROOT), jsonStructure(Set.of(section)), sectionText);
+    }
+
+    /**
+     * Example JSON of the structured resume with only the given sections.
+     */
+    private static String jsonStructure(Set<Section> sections) {
+        List<String> members = new ArrayList<>();
+        for (Section section : EXTRACTED_SECTIONS) {
+            if (!sections.contains(section)) {
+                continue;
+            }
+            members.add(switch (section) {
+                case CONTACT -> """
+                          "personal_info": {
+                            "name": "string",
+                            "email": "string",
+                            "phone": "string",
+                            "linkedin": "string or null",
+                            "github": "string or null"
+                          }""";
+                case EDUCATION -> """
+                          "education": [
+                            {
+                              "degree": "string",
+                              "institution": "string",
+                              "year": "string",
+                              "score": "string or null",
+                              "location": "string or null"
+                            }
+                          ]""";
+                case EXPERIENCE -> """
+                          "experience": [
+                            {
+                              "title": "string",
+                              "company": "string",
+                              "duration": "string",
+                              "description": "string",
+                              "location": "string or null"
+                            }
+                          ]""";
+                case SKILLS -> """
+                          "skills": ["string1", "string2"]""";
+                case OTHER -> throw new IllegalArgumentException("Section is not extracted: " + section);
+            });
+        }
+        return "{\n" + String.join(",\n", members).indent(2) + "}\n";
+    }
+
+    /**
+     * Extraction mode, pre-extraction setting and counters per mode.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", extractionMode);
+        extractionCounters.forEach((mode, counter) -> stats.put(mode, counter.toMap()));
+        stats.put("pre_extract", preExtract);
+        stats.put("pre_extraction", preExtractionCounter.toMap());
+        return stats;
+    }
+
+    private static long nanosToMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+
+    /**
+     * Progress of one extraction: how many of its LLM prompts have been answered. Starts
+     * at zero of the total and is reported again when sectioned extraction falls back
+     * to the single prompt.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        ProgressListener NONE = (answered, total) -> { };
+
+        void onPrompts(int answered, int total);
+    }
+
+    /**
+     * Outcome and latency of resume extractions in one mode. Fallbacks are sectioned
+     * extractions that ended up using the single prompt.
+     */
+    private static final class ExtractionCounter {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LatencyWindow latency = new LatencyWindow(256);
+
+        void record(long millis, boolean succeeded) {
+            runs.increment();
+            if (succeeded) {
+                latency.record(millis);
+            } else {
+                failures.increment();
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("runs", runs.sum());
+            map.put("failures", failures.sum());
+            map.put("failure_rate", runs.sum() == 0 ? 0.0 : (double) failures.sum() / runs.sum());
+            map.put("fallbacks", fallbacks.sum());
+            map.put("avg_ms", latency.average());
+            map.put("p95_ms", latency.percentile(95));
+            return map;
+        }
+    }
+
+    /**
+     * Fields filled without the LLM and the tokens that saved. Conflicts are LLM values
+     * that disagreed with a pre-extracted one and were replaced.
+     */
+    private static final class PreExtractionCounter {
+        private final LongAdder resumes = new LongAdder();
+        private final LongAdder filledFields = new LongAdder();
+        private final LongAdder skippedSections = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder promptTokensSaved = new LongAdder();
+        private final LongAdder outputTokensSaved = new LongAdder();
+
+        void record(int filled, int skipped, int promptTokens, int outputTokens) {
+            resumes.increment();
+            filledFields.add(filled);
+            skippedSections.add(skipped);
+            promptTokensSaved.add(promptTokens);
+            outputTokensSaved.add(outputTokens);
+        }
+
+        Map<String, Object> toMap() {
+            long count = Math.max(1L, resumes.sum());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("resumes", resumes.sum());
+            map.put("avg_filled_fields", (double) filledFields.sum() / count);
+            map.put("skipped_sections", skippedSections.sum());
+            map.put("conflicts", conflicts.sum());
+            map.put("avg_prompt_tokens_saved", promptTokensSaved.sum() / count);
+            map.put("avg_output_tokens_saved", outputTokensSaved.sum() / count);
+            return map;
+        }
+    }
+}
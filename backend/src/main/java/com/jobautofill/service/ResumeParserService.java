@@ -1,5 +1,6 @@
 package com.jobautofill.service;
 
+import com.jobautofill.storage.ExtractionCache;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
@@ -15,18 +16,32 @@ public class ResumeParserService {
 
     private static final Logger log = LoggerFactory.getLogger(ResumeParserService.class);
 
+    private final ExtractionCache extractionCache;
+
+    public ResumeParserService(ExtractionCache extractionCache) {
+        this.extractionCache = extractionCache;
+    }
+
     /**
      * Extracts text from a PDF file using Apache PDFBox.
+     * Text of a PDF parsed before is read from the extraction cache instead.
      *
      * @param file MultipartFile uploaded from client
      * @return Extracted text as a single String
      * @throws IOException if PDF is corrupt or unreadable
      */
     public String extractTextFromPdf(MultipartFile file) throws IOException {
+        byte[] bytes = file.getBytes();
+        String cached = extractionCache.getText(bytes);
+        if (cached != null) {
+            log.info("Using cached text of {} ({} characters)", file.getOriginalFilename(), cached.length());
+            return cached;
+        }
+
         log.info("Starting PDF text extraction for file: {}", file.getOriginalFilename());
 
         // Load PDF document from MultipartFile bytes
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
+        try (PDDocument document = Loader.loadPDF(bytes)) {
 
             // Create PDFTextStripper to extract text
             PDFTextStripper stripper = new PDFTextStripper();
@@ -36,7 +51,9 @@ public class ResumeParserService {
 
             log.info("Successfully extracted {} characters from PDF", text.length());
 
-            return text.trim();
+            String trimmed = text.trim();
+            extractionCache.putText(bytes, trimmed);
+            return trimmed;
         } catch (IOException e) {
             log.error("Failed to parse PDF: {}", e.getMessage());
             throw new IOException("Unable to parse PDF file: " + e.getMessage(), e);
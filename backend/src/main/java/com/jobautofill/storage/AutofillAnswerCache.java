@@ -0,0 +1,342 @@
+package com.jobautofill.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.util.ContentHash;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of LLM autofill answers.
+ * Keys combine the active model, the prompt configuration (layout, resume encoding,
+ * prompt template version), the fingerprint of the resume sections the field's intent
+ * uses and the normalized field signature, so a cached answer is only reused for the
+ * same question asked with the same prompt against the same resume content and model.
+ * Disk entries written under another prompt configuration are never looked up again
+ * and expire with the TTL.
+ * The memory tier is a bounded LRU with TTL; the optional disk tier keeps one
+ * JSON file per entry so answers survive restarts.
+ */
+@Component
+public class AutofillAnswerCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AutofillAnswerCache.class);
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${autofill.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${autofill.cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${autofill.cache.ttl:86400000}")
+    private long ttlMillis;
+
+    @Value("${autofill.cache.disk.enabled:false}")
+    private boolean diskEnabled;
+
+    @Value("${autofill.cache.disk.dir:${user.home}/.job-autofill/answer-cache}")
+    private String diskDir;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+
+    // Disk entries stored up to these times are stale but may not be deleted yet
+    private volatile long clearedAt;
+    private final Map<String, Long> invalidatedContexts = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > Math.max(1, maxEntries)) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public AutofillAnswerCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled && diskEnabled) {
+            try {
+                Files.createDirectories(Paths.get(diskDir));
+                log.info("Autofill answer disk cache at {}", diskDir);
+            } catch (IOException e) {
+                log.warn("Disabling autofill answer disk cache, cannot create {}: {}", diskDir, e.getMessage());
+                diskEnabled = false;
+            }
+        }
+    }
+
+    public static String key(String model, String promptConfig, String contextFingerprint, String fieldSignature) {
+        return model + "|" + promptConfig + "|" + contextFingerprint + "|" + fieldSignature;
+    }
+
+    public AutofillResponse get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(now, ttlMillis)) {
+                    memoryHits.incrementAndGet();
+                    return entry.copy();
+                }
+                memory.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+
+        if (diskEnabled) {
+            Entry entry = readFromDisk(key);
+            if (entry != null && isInvalidated(entry)) {
+                entry = null;
+            }
+            if (entry != null && !entry.isExpired(now, ttlMillis)) {
+                diskHits.incrementAndGet();
+                synchronized (memory) {
+                    memory.put(key, entry);
+                }
+                return entry.copy();
+            }
+            if (entry != null) {
+                deleteFromDisk(key);
+                evictions.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, AutofillResponse response) {
+        if (!enabled || response == null) {
+            return;
+        }
+
+        Entry entry = new Entry(key, System.currentTimeMillis(), response.getSuggestedValue(),
+                response.getConfidence(), response.getReasoning(), response.getFieldMatched());
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        puts.incrementAndGet();
+
+        if (diskEnabled) {
+            // Callers run on Ollama response threads, keep file I/O off them
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    // Write then rename, so a reader never sees a half-written entry
+                    Path temp = Files.createTempFile(Paths.get(diskDir), "entry", ".tmp");
+                    objectMapper.writeValue(temp.toFile(), entry);
+                    Files.move(temp, diskPath(key), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    log.warn("Failed to write autofill answer to disk cache: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every cached answer. Memory is cleared at once; disk files are deleted in
+     * the background and ignored by {@link #get} until then.
+     */
+    public void invalidateAll() {
+        int removed;
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            removed = memory.size();
+            memory.clear();
+            clearedAt = now;
+        }
+
+        if (diskEnabled) {
+            // Callers hold the resume lock or run on reactor threads, keep file I/O off them
+            Schedulers.boundedElastic().schedule(() -> {
+                int deleted = deleteStaleFromDisk(entry -> entry.storedAt <= now);
+                log.info("Deleted {} cached answers from disk", deleted);
+            });
+        }
+
+        log.info("Invalidated autofill answer cache ({} in-memory entries)", removed);
+    }
+
+    /**
+     * Drops the answers cached under any of the given context fingerprints. Memory is
+     * cleared at once; disk files are deleted in the background and ignored by
+     * {@link #get} until then.
+     *
+     * @return the number of in-memory answers removed
+     */
+    public int invalidateContexts(Collection<String> contextFingerprints) {
+        if (contextFingerprints.isEmpty()) {
+            return 0;
+        }
+
+        int removed;
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            int before = memory.size();
+            memory.keySet().removeIf(key -> contextFingerprints.contains(contextOf(key)));
+            removed = before - memory.size();
+        }
+
+        if (diskEnabled) {
+            Set<String> contexts = Set.copyOf(contextFingerprints);
+            // A get() may have read a file just before it was deleted, so markers stay until
+            // everything they cover has expired anyway
+            invalidatedContexts.values().removeIf(invalidatedAt -> ttlMillis > 0 && now - invalidatedAt > ttlMillis);
+            contexts.forEach(context -> invalidatedContexts.put(context, now));
+            Schedulers.boundedElastic().schedule(() -> {
+                int deleted = deleteStaleFromDisk(entry -> contexts.contains(contextOf(entry.key))
+                        && entry.storedAt <= now);
+                log.debug("Deleted {} cached answers of stale contexts from disk", deleted);
+            });
+        }
+        return removed;
+    }
+
+    private boolean isInvalidated(Entry entry) {
+        if (entry.storedAt <= clearedAt) {
+            return true;
+        }
+        Long invalidatedAt = invalidatedContexts.get(contextOf(entry.key));
+        return invalidatedAt != null && entry.storedAt <= invalidatedAt;
+    }
+
+    /**
+     * Deletes the disk entries that are {@code stale}.
+     *
+     * @return the number of files deleted
+     */
+    private int deleteStaleFromDisk(Predicate<Entry> stale) {
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(Paths.get(diskDir))) {
+            for (Path path : files.filter(file -> file.toString().endsWith(".json")).toList()) {
+                try {
+                    Entry entry = objectMapper.readValue(path.toFile(), Entry.class);
+                    if (stale.test(entry) && Files.deleteIfExists(path)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to check cached answer {}: {}", path, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to invalidate autofill answer disk cache: {}", e.getMessage());
+        }
+        return deleted;
+    }
+
+    private static String contextOf(String key) {
+        String[] parts = key.split("\\|", 4);
+        return parts.length == 4 ? parts[2] : "";
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("disk_enabled", diskEnabled);
+        synchronized (memory) {
+            stats.put("size", memory.size());
+        }
+        stats.put("max_entries", maxEntries);
+        stats.put("memory_hits", memoryHits.get());
+        stats.put("disk_hits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("puts", puts.get());
+        long lookups = memoryHits.get() + diskHits.get() + misses.get();
+        stats.put("hit_rate", lookups == 0 ? 0.0 : (double) (memoryHits.get() + diskHits.get()) / lookups);
+        return stats;
+    }
+
+    private Entry readFromDisk(String key) {
+        Path path = diskPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(path.toFile(), Entry.class);
+            return key.equals(entry.key) ? entry : null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached answer {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void deleteFromDisk(String key) {
+        try {
+            Files.deleteIfExists(diskPath(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete expired cached answer: {}", e.getMessage());
+        }
+    }
+
+    private Path diskPath(String key) {
+        return Paths.get(diskDir, ContentHash.sha256(key) + ".json");
+    }
+
+    /**
+     * Cached answer as stored in both tiers.
+     */
+    public static class Entry {
+        public String key;
+        public long storedAt;
+        public String suggestedValue;
+        public double confidence;
+        public String reasoning;
+        public String fieldMatched;
+
+        public Entry() {
+        }
+
+        Entry(String key, long storedAt, String suggestedValue, double confidence, String reasoning,
+              String fieldMatched) {
+            this.key = key;
+            this.storedAt = storedAt;
+            this.suggestedValue = suggestedValue;
+            this.confidence = confidence;
+            this.reasoning = reasoning;
+            this.fieldMatched = fieldMatched;
+        }
+
+        boolean isExpired(long now, long ttlMillis) {
+            return ttlMillis > 0 && now - storedAt > ttlMillis;
+        }
+
+        AutofillResponse copy() {
+            return new AutofillResponse(suggestedValue, confidence, reasoning, fieldMatched);
+        }
+    }
+}
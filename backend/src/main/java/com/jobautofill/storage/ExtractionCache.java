@@ -0,0 +1,249 @@
+package com.jobautofill.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.ContentHash;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed disk cache of the resume pipeline.
+ * PDF bytes map to their extracted text, and normalized text plus the extraction
+ * signature (model, mode, prompt version) map to the structured resume, so a
+ * re-upload of the same file skips both PDFBox and Ollama.
+ * Entries are files named by their key's hash. Once the directory grows past
+ * {@code max-bytes} the least recently used files are deleted.
+ */
+@Component
+public class ExtractionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionCache.class);
+
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String RESUME_SUFFIX = ".json";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${autofill.extraction.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${autofill.extraction.cache.dir:${user.home}/.job-autofill/extraction-cache}")
+    private String dir;
+
+    @Value("${autofill.extraction.cache.max-bytes:52428800}")
+    private long maxBytes;
+
+    private final AtomicLong sizeBytes = new AtomicLong();
+    private final AtomicLong textHits = new AtomicLong();
+    private final AtomicLong textMisses = new AtomicLong();
+    private final AtomicLong resumeHits = new AtomicLong();
+    private final AtomicLong resumeMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExtractionCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(Paths.get(dir));
+            sizeBytes.set(entries().stream().mapToLong(ExtractionCache::sizeOf).sum());
+            log.info("Extraction cache at {} ({} bytes)", dir, sizeBytes.get());
+            if (sizeBytes.get() > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Disabling extraction cache, cannot create {}: {}", dir, e.getMessage());
+            enabled = false;
+        }
+    }
+
+    /**
+     * Key of a structured resume: the text, ignoring whitespace differences, and what
+     * would extract it.
+     */
+    public static String resumeKey(String resumeText, String extractionSignature) {
+        String normalized = resumeText.strip().replaceAll("\\s+", " ");
+        return ContentHash.sha256(normalized + "|" + extractionSignature);
+    }
+
+    /**
+     * Extracted text of the PDF with the given bytes, or null.
+     */
+    public String getText(byte[] pdfBytes) {
+        if (!enabled) {
+            return null;
+        }
+        Path path = path(ContentHash.sha256(pdfBytes), TEXT_SUFFIX);
+        try {
+            if (Files.exists(path)) {
+                String text = Files.readString(path, StandardCharsets.UTF_8);
+                touch(path);
+                textHits.incrementAndGet();
+                return text;
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached text {}: {}", path, e.getMessage());
+        }
+        textMisses.incrementAndGet();
+        return null;
+    }
+
+    public void putText(byte[] pdfBytes, String text) {
+        if (enabled) {
+            String hash = ContentHash.sha256(pdfBytes);
+            write(path(hash, TEXT_SUFFIX), text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Structured resume stored under {@link #resumeKey}, or null.
+     */
+    public StructuredResume getResume(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Path path = path(key, RESUME_SUFFIX);
+        try {
+            if (Files.exists(path)) {
+                StructuredResume resume = objectMapper.readValue(path.toFile(), StructuredResume.class);
+                touch(path);
+                resumeHits.incrementAndGet();
+                return resume;
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached extraction {}: {}", path, e.getMessage());
+        }
+        resumeMisses.incrementAndGet();
+        return null;
+    }
+
+    public void putResume(String key, StructuredResume resume) {
+        if (!enabled || resume == null) {
+            return;
+        }
+        try {
+            write(path(key, RESUME_SUFFIX), objectMapper.writeValueAsBytes(resume));
+        } catch (IOException e) {
+            log.warn("Failed to serialize extraction for the cache: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size_bytes", sizeBytes.get());
+        stats.put("max_bytes", maxBytes);
+        stats.put("text_hits", textHits.get());
+        stats.put("text_misses", textMisses.get());
+        stats.put("extraction_hits", resumeHits.get());
+        stats.put("extraction_misses", resumeMisses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void write(Path path, byte[] bytes) {
+        // Callers run on request and Ollama response threads, keep file I/O off them
+        Schedulers.boundedElastic().schedule(() -> writeNow(path, bytes));
+    }
+
+    private synchronized void writeNow(Path path, byte[] bytes) {
+        try {
+            long previous = sizeOf(path);
+            // Write then rename, so a reader never sees a half-written entry
+            Path temp = Files.createTempFile(path.getParent(), "entry", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (sizeBytes.addAndGet(bytes.length - previous) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write extraction cache entry {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes least recently used entries until the cache is back under 90% of its limit.
+     */
+    private void evict() {
+        long target = maxBytes * 9 / 10;
+        List<Path> oldestFirst = entries().stream()
+                .sorted(Comparator.comparing(ExtractionCache::lastModified))
+                .toList();
+        for (Path path : oldestFirst) {
+            if (sizeBytes.get() <= target) {
+                break;
+            }
+            long size = sizeOf(path);
+            try {
+                if (Files.deleteIfExists(path)) {
+                    sizeBytes.addAndGet(-size);
+                    evictions.incrementAndGet();
+                }
+            } catch (IOException e) {
+                log.warn("Failed to evict extraction cache entry {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private List<Path> entries() {
+        try (Stream<Path> files = Files.list(Paths.get(dir))) {
+            return files.filter(path -> path.toString().endsWith(TEXT_SUFFIX)
+                    || path.toString().endsWith(RESUME_SUFFIX)).toList();
+        } catch (IOException e) {
+            log.warn("Failed to list extraction cache: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Path path(String hash, String suffix) {
+        return Paths.get(dir, hash + suffix);
+    }
+
+    // Reads bump the modification time, which eviction uses as last access
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Failed to touch {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -1,33 +1,150 @@
 package com.jobautofill.storage;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.PromptBudgetProperties;
 import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.ResumeEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Simple in-memory storage for resume data.
  * In production, this would be a database (SQLite, PostgreSQL, etc.)
  * For now, we store only ONE resume at a time (latest upload overwrites).
+ * Alongside the raw upload it keeps an immutable, versioned snapshot of the
+ * extracted resume that the autofill path reads without any JSON parsing.
+ * A heuristic snapshot is published right after upload and swapped for the LLM
+ * extraction once that finishes.
  */
 @Component
 public class ResumeStorage {
 
+    private static final Logger log = LoggerFactory.getLogger(ResumeStorage.class);
+
     private final AtomicReference<ResumeData> currentResume = new AtomicReference<>();
+    private final AtomicReference<ResumeSnapshot> currentSnapshot = new AtomicReference<>();
+    private final AtomicLong snapshotVersions = new AtomicLong();
+    private final ObjectMapper objectMapper;
+    private final AutofillAnswerCache answerCache;
+    private final PromptBudgetProperties promptBudget;
+
+    @Value("${autofill.prompt.resume-encoding:compact-json}")
+    private String resumeEncoding;
+
+    // Of the last published snapshot, kept across uploads to find answers gone stale
+    private ResumeSnapshot lastSnapshot;
+
+    public ResumeStorage(ObjectMapper objectMapper, AutofillAnswerCache answerCache,
+                         PromptBudgetProperties promptBudget) {
+        this.objectMapper = objectMapper;
+        this.answerCache = answerCache;
+        this.promptBudget = promptBudget;
+    }
 
-    public void store(ResumeData resumeData) {
+    public synchronized void store(ResumeData resumeData) {
         currentResume.set(resumeData);
+        currentSnapshot.set(null);
+    }
+
+    public ResumeSnapshot storeExtraction(ResumeData resumeData, StructuredResume structuredResume) {
+        return storeExtraction(resumeData, structuredResume, ResumeSnapshot.Origin.LLM);
+    }
+
+    /**
+     * Publishes the extraction result for {@code resumeData}.
+     * The snapshot is only published if that resume is still the current one,
+     * so a late extraction never overwrites a newer upload, and a heuristic
+     * resume never replaces an LLM extraction.
+     *
+     * @return the published snapshot, or null if it was not published
+     */
+    public ResumeSnapshot storeExtraction(ResumeData resumeData, StructuredResume structuredResume,
+                                          ResumeSnapshot.Origin origin) {
+        ResumeSnapshot snapshot = ResumeSnapshot.create(snapshotVersions.incrementAndGet(), origin,
+                structuredResume, objectMapper, getResumeEncoding(), promptBudget::tokensFor);
+
+        synchronized (this) {
+            if (currentResume.get() != resumeData) {
+                return null;
+            }
+            ResumeSnapshot current = currentSnapshot.get();
+            if (origin == ResumeSnapshot.Origin.HEURISTIC && current != null
+                    && current.getOrigin() == ResumeSnapshot.Origin.LLM) {
+                return null;
+            }
+            resumeData.setExtractedJson(snapshot.getResumeJson());
+            currentSnapshot.set(snapshot);
+
+            if (lastSnapshot != null) {
+                invalidateChangedContexts(lastSnapshot, snapshot);
+            }
+            lastSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Cache keys carry the fingerprint of the sections an intent uses, or of the whole
+     * resume. Purges the answers of intents whose sections changed; answers drawn only
+     * from unchanged sections stay cached.
+     */
+    private void invalidateChangedContexts(ResumeSnapshot previous, ResumeSnapshot next) {
+        List<String> changedSections = previous.getSectionFingerprints().entrySet().stream()
+                .filter(section -> !section.getValue().equals(next.getSectionFingerprints().get(section.getKey())))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (changedSections.isEmpty()) {
+            return;
+        }
+
+        Set<String> current = new HashSet<>(next.getContextFingerprints().values());
+        Set<String> stale = new HashSet<>();
+        for (Map.Entry<IntentType, String> context : previous.getContextFingerprints().entrySet()) {
+            if (!current.contains(context.getValue())) {
+                stale.add(context.getValue());
+            }
+        }
+        stale.add(previous.getFingerprint());
+        int removed = answerCache.invalidateContexts(stale);
+        log.info("Resume sections {} changed, invalidated {} cached answers in memory", changedSections, removed);
+    }
+
+    /**
+     * Encoding of the resume in prompts, see {@code autofill.prompt.resume-encoding}.
+     */
+    public ResumeEncoding getResumeEncoding() {
+        return ResumeEncoding.fromName(resumeEncoding);
     }
 
     public ResumeData get() {
         return currentResume.get();
     }
 
+    /**
+     * Returns the current extracted snapshot, or null if the resume has not been extracted.
+     */
+    public ResumeSnapshot getSnapshot() {
+        return currentSnapshot.get();
+    }
+
     public boolean hasResume() {
         return currentResume.get() != null;
     }
 
-    public void clear() {
+    public synchronized void clear() {
         currentResume.set(null);
+        currentSnapshot.set(null);
     }
 }
@@ -0,0 +1,36 @@
+package com.jobautofill.util;
+
+import com.jobautofill.model.AutofillRequest;
+
+import java.util.Locale;
+
+/**
+ * Normalized signature of a form field.
+ * Fields that differ only in case, spacing or punctuation (the same question
+ * asked by different ATS vendors) share a signature.
+ */
+public final class FieldSignature {
+
+    private FieldSignature() {
+        // Utility class
+    }
+
+    public static String of(AutofillRequest request) {
+        if (request == null) {
+            return "";
+        }
+        return normalize(request.getFieldLabel()) + "|"
+                + normalize(request.getFieldName()) + "|"
+                + normalize(request.getFieldPlaceholder()) + "|"
+                + normalize(request.getFieldType());
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+}
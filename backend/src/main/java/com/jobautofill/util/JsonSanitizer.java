@@ -86,6 +86,19 @@ public class JsonSanitizer {
         }
     }
 
+    /**
+     * Cuts a reply down to its outermost JSON object, dropping code fences or prose
+     * around it. Returns the input unchanged if it has no braces.
+     */
+    public static String extractJsonObject(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        int start = raw.indexOf('{');
+        int end = raw.lastIndexOf('}');
+        return start >= 0 && end > start ? raw.substring(start, end + 1) : raw;
+    }
+
     /**
      * Converts single-element arrays to strings for specified fields.
      */
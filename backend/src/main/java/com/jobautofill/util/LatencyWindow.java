@@ -0,0 +1,60 @@
+package com.jobautofill.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size window of the most recent latency samples (milliseconds) with percentile lookup.
+ */
+public final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+    }
+
+    /**
+     * Returns the given percentile (0-100) of the samples in the window, or 0 when empty.
+     */
+    public synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the samples in the window, or 0 when empty.
+     */
+    public synchronized long average() {
+        if (size == 0) {
+            return 0L;
+        }
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            total += samples[i];
+        }
+        return total / size;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jobautofill.util;
+
+/**
+ * Length budget for streamed long-form answers (motivation, cover letter).
+ * Generation is stopped as soon as either limit is reached.
+ */
+public final class LongFormBudget {
+
+    private final int maxChars;
+    private final int maxSentences;
+
+    public LongFormBudget(int maxChars, int maxSentences) {
+        this.maxChars = maxChars;
+        this.maxSentences = maxSentences;
+    }
+
+    public boolean isReached(CharSequence text) {
+        return (maxChars > 0 && text.length() >= maxChars)
+                || (maxSentences > 0 && countSentences(text) >= maxSentences);
+    }
+
+    /**
+     * Cuts {@code text} to the budget, preferring a sentence boundary.
+     */
+    public String trim(String text) {
+        String trimmed = text.trim();
+        int end = trimmed.length();
+
+        if (maxSentences > 0) {
+            int sentences = 0;
+            for (int i = 0; i < trimmed.length(); i++) {
+                if (isSentenceEnd(trimmed, i) && ++sentences == maxSentences) {
+                    end = Math.min(end, i + 1);
+                    break;
+                }
+            }
+        }
+
+        if (maxChars > 0 && end > maxChars) {
+            end = maxChars;
+            for (int i = maxChars - 1; i > 0; i--) {
+                if (isSentenceEnd(trimmed, i)) {
+                    end = i + 1;
+                    break;
+                }
+            }
+        }
+
+        return trimmed.substring(0, end).trim();
+    }
+
+    private static int countSentences(CharSequence text) {
+        int sentences = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isSentenceEnd(text, i)) {
+                sentences++;
+            }
+        }
+        return sentences;
+    }
+
+    private static boolean isSentenceEnd(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c != '.' && c != '!' && c != '?') {
+            return false;
+        }
+        return index + 1 < text.length() && Character.isWhitespace(text.charAt(index + 1));
+    }
+}
@@ -0,0 +1,180 @@
+package com.jobautofill.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Schemas sent to Ollama as {@code format}, so generation is constrained to the
+ * shapes we parse, and a minimal validator for the subset of JSON Schema used here
+ * (type, properties, required, items).
+ */
+public final class OutputSchemas {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private static final JsonNode STRUCTURED_RESUME = buildStructuredResume();
+    private static final JsonNode AUTOFILL_RESPONSE = buildAutofillResponse();
+
+    private OutputSchemas() {
+        // Utility class
+    }
+
+    /**
+     * Schema of {@link com.jobautofill.model.StructuredResume}, the extraction output.
+     */
+    public static JsonNode structuredResume() {
+        return STRUCTURED_RESUME;
+    }
+
+    /**
+     * Schema of a resume holding only some top-level properties of the structured resume,
+     * e.g. {@code {"education": [...]}}, for partial extraction.
+     */
+    public static JsonNode structuredResume(Collection<String> properties) {
+        ObjectNode subset = NODES.objectNode();
+        properties.forEach(property -> subset.set(property, STRUCTURED_RESUME.path("properties").path(property)));
+        return object(subset, properties.toArray(String[]::new));
+    }
+
+    /**
+     * Schema of {@link com.jobautofill.model.AutofillResponse}, a single-field answer.
+     */
+    public static JsonNode autofillResponse() {
+        return AUTOFILL_RESPONSE;
+    }
+
+    /**
+     * Schema of a multi-field answer: one autofill response per field alias.
+     */
+    public static JsonNode multiField(Collection<String> aliases) {
+        ObjectNode properties = NODES.objectNode();
+        aliases.forEach(alias -> properties.set(alias, AUTOFILL_RESPONSE));
+        return object(properties, aliases.toArray(String[]::new));
+    }
+
+    /**
+     * Whether {@code node} matches {@code schema}. Properties that are not listed in the
+     * schema are allowed.
+     */
+    public static boolean validates(JsonNode node, JsonNode schema) {
+        JsonNode type = schema.get("type");
+        if (type != null && !matchesType(node, type)) {
+            return false;
+        }
+
+        if (node.isObject()) {
+            for (JsonNode required : schema.path("required")) {
+                if (!node.has(required.asText())) {
+                    return false;
+                }
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> it = schema.path("properties").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> property = it.next();
+                JsonNode value = node.get(property.getKey());
+                if (value != null && !validates(value, property.getValue())) {
+                    return false;
+                }
+            }
+        } else if (node.isArray() && schema.has("items")) {
+            for (JsonNode item : node) {
+                if (!validates(item, schema.get("items"))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesType(JsonNode node, JsonNode type) {
+        if (type.isArray()) {
+            for (JsonNode option : type) {
+                if (matchesType(node, option)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return switch (type.asText()) {
+            case "object" -> node.isObject();
+            case "array" -> node.isArray();
+            case "string" -> node.isTextual();
+            case "number" -> node.isNumber();
+            case "integer" -> node.isIntegralNumber();
+            case "boolean" -> node.isBoolean();
+            case "null" -> node.isNull();
+            default -> true;
+        };
+    }
+
+    private static JsonNode buildStructuredResume() {
+        ObjectNode personalInfo = NODES.objectNode();
+        personalInfo.set("name", type("string"));
+        personalInfo.set("email", type("string"));
+        personalInfo.set("phone", type("string"));
+        personalInfo.set("linkedin", nullable("string"));
+        personalInfo.set("github", nullable("string"));
+
+        ObjectNode education = NODES.objectNode();
+        education.set("degree", type("string"));
+        education.set("institution", type("string"));
+        education.set("year", type("string"));
+        education.set("score", nullable("string"));
+        education.set("location", nullable("string"));
+
+        ObjectNode experience = NODES.objectNode();
+        experience.set("title", type("string"));
+        experience.set("company", type("string"));
+        experience.set("duration", type("string"));
+        experience.set("description", type("string"));
+        experience.set("location", nullable("string"));
+
+        ObjectNode properties = NODES.objectNode();
+        properties.set("personal_info", object(personalInfo, "name", "email", "phone", "linkedin", "github"));
+        properties.set("education", array(object(education, "degree", "institution", "year")));
+        properties.set("experience", array(object(experience, "title", "company", "duration", "description")));
+        properties.set("skills", array(type("string")));
+        return object(properties, "personal_info", "education", "experience", "skills");
+    }
+
+    private static JsonNode buildAutofillResponse() {
+        ObjectNode properties = NODES.objectNode();
+        properties.set("suggested_value", type("string"));
+        properties.set("confidence", type("number"));
+        properties.set("reasoning", type("string"));
+        properties.set("field_matched", type("string"));
+        return object(properties, "suggested_value", "confidence", "reasoning", "field_matched");
+    }
+
+    private static ObjectNode object(ObjectNode properties, String... required) {
+        ObjectNode schema = type("object");
+        schema.set("properties", properties);
+        ArrayNode requiredNames = schema.putArray("required");
+        for (String name : required) {
+            requiredNames.add(name);
+        }
+        return schema;
+    }
+
+    private static ObjectNode array(JsonNode items) {
+        ObjectNode schema = type("array");
+        schema.set("items", items);
+        return schema;
+    }
+
+    private static ObjectNode type(String type) {
+        return NODES.objectNode().put("type", type);
+    }
+
+    private static ObjectNode nullable(String type) {
+        ObjectNode schema = NODES.objectNode();
+        schema.putArray("type").add(type).add("null");
+        return schema;
+    }
+}
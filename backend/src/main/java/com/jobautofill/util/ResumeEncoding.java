@@ -0,0 +1,134 @@
+package com.jobautofill.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How resume data is written into prompts.
+ * <ul>
+ *   <li>{@code pretty-json}: indented JSON with every key, including nulls</li>
+ *   <li>{@code compact-json}: single-line JSON without null or empty values</li>
+ *   <li>{@code lines}: one {@code key: value} line per value, list entries as
+ *       {@code - key: value; key: value}, no quotes or braces</li>
+ * </ul>
+ */
+public enum ResumeEncoding {
+    PRETTY_JSON,
+    COMPACT_JSON,
+    LINES;
+
+    public static ResumeEncoding fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String displayName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public String render(JsonNode node, ObjectMapper objectMapper) throws Exception {
+        return switch (this) {
+            case PRETTY_JSON -> objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(node);
+            case COMPACT_JSON -> objectMapper.writeValueAsString(prune(node));
+            case LINES -> {
+                StringBuilder out = new StringBuilder();
+                JsonNode pruned = prune(node);
+                if (pruned.isObject()) {
+                    appendObject(out, pruned, "");
+                }
+                yield out.isEmpty() ? "(empty)" : out.toString().stripTrailing();
+            }
+        };
+    }
+
+    /**
+     * Copy of the node without null, blank or empty values.
+     */
+    static JsonNode prune(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode pruned = JsonNodeFactory.instance.objectNode();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = prune(field.getValue());
+                if (!isBlank(value)) {
+                    pruned.set(field.getKey(), value);
+                }
+            }
+            return pruned;
+        }
+        if (node.isArray()) {
+            ArrayNode pruned = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode item : node) {
+                JsonNode value = prune(item);
+                if (!isBlank(value)) {
+                    pruned.add(value);
+                }
+            }
+            return pruned;
+        }
+        return node;
+    }
+
+    private static boolean isBlank(JsonNode value) {
+        return value == null || value.isNull() || (value.isTextual() && value.asText().isBlank())
+                || (value.isContainerNode() && value.isEmpty());
+    }
+
+    private static void appendObject(StringBuilder out, JsonNode object, String indent) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = object.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode value = field.getValue();
+            out.append(indent).append(field.getKey()).append(':');
+            if (value.isObject()) {
+                out.append('\n');
+                appendObject(out, value, indent + " ");
+            } else if (value.isArray() && !isScalarArray(value)) {
+                out.append('\n');
+                for (JsonNode item : value) {
+                    out.append(indent).append("- ").append(inline(item)).append('\n');
+                }
+            } else {
+                out.append(' ').append(inline(value)).append('\n');
+            }
+        }
+    }
+
+    private static boolean isScalarArray(JsonNode array) {
+        for (JsonNode item : array) {
+            if (item.isContainerNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String inline(JsonNode value) {
+        StringBuilder out = new StringBuilder();
+        if (value.isObject()) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = value.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (!out.isEmpty()) {
+                    out.append("; ");
+                }
+                out.append(field.getKey()).append(": ").append(inline(field.getValue()));
+            }
+        } else if (value.isArray()) {
+            for (JsonNode item : value) {
+                if (!out.isEmpty()) {
+                    out.append(", ");
+                }
+                out.append(inline(item));
+            }
+        } else {
+            // Keep every value on its own line
+            out.append(value.asText().replaceAll("\\s*\\R\\s*", " "));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,290 @@
+package com.jobautofill.util;
+
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.ResumeSectionSplitter.Section;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based extraction of the resume fields that regexes find reliably: email, phone,
+ * LinkedIn and GitHub URLs, the name at the top next to them and the skills section.
+ * Only values with high confidence are returned; everything else is left to the LLM.
+ */
+public final class ResumePreExtractor {
+
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}");
+    private static final Pattern PHONE = Pattern.compile("(?<![\\w/])\\+?\\(?\\d[\\d\\s().-]{8,}\\d(?![\\w/])");
+    private static final Pattern LINKEDIN = Pattern.compile(
+            "(?:https?://)?(?:[a-z]{2,3}\\.)?linkedin\\.com/in/[A-Za-z0-9_%-]+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern GITHUB = Pattern.compile(
+            "(?:https?://)?(?:www\\.)?github\\.com/[A-Za-z0-9-]+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NAME = Pattern.compile("[\\p{L}][\\p{L}.'-]*(?: [\\p{L}][\\p{L}.'-]*){1,3}");
+    private static final Pattern SKILL_SEPARATORS = Pattern.compile("[,;|•·●▪]");
+    private static final Pattern BULLET = Pattern.compile("^[-*•·●▪]\\s*");
+
+    private static final int MIN_PHONE_DIGITS = 10;
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int MAX_SKILL_LENGTH = 40;
+    private static final int MAX_SKILL_WORDS = 4;
+    private static final int MIN_SKILLS = 2;
+    private static final int NAME_SEARCH_LINES = 3;
+    private static final int NAME_CONTACT_DISTANCE = 2;
+
+    // Words of document titles, headings and job titles that open a resume instead of the name
+    private static final Set<String> NOT_NAME_WORDS = Set.of(
+            "resume", "résumé", "curriculum", "vitae", "cv", "bio", "biodata", "profile", "summary", "objective",
+            "contact", "information", "details", "personal", "education", "experience", "skills", "projects",
+            "senior", "junior", "lead", "principal", "staff", "chief", "head", "associate", "assistant",
+            "software", "engineer", "engineering", "developer", "programmer", "architect", "manager",
+            "director", "analyst", "designer", "consultant", "scientist", "specialist", "administrator",
+            "intern", "student", "graduate", "officer", "executive", "full-stack", "frontend", "backend",
+            "data", "web", "product", "project");
+
+    private ResumePreExtractor() {
+        // Utility class
+    }
+
+    /**
+     * Pre-extracts from the resume text and its sections as split by
+     * {@link ResumeSectionSplitter}.
+     */
+    public static Result extract(String resumeText, Map<Section, String> sections) {
+        // Contact details sit above the first heading; without headings search everything
+        String contact = sections.getOrDefault(Section.CONTACT, resumeText);
+
+        List<String> contactLines = contact.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+
+        StructuredResume.PersonalInfo personalInfo = new StructuredResume.PersonalInfo();
+        personalInfo.setName(findName(contactLines));
+        personalInfo.setEmail(find(EMAIL, contact, resumeText));
+        personalInfo.setPhone(findPhone(contact));
+        personalInfo.setLinkedin(find(LINKEDIN, contact, resumeText));
+        personalInfo.setGithub(find(GITHUB, contact, resumeText));
+
+        // A value is unambiguous when the contact block holds exactly one of its kind;
+        // first matches elsewhere in the text may belong to a reference or employer
+        int emails = distinct(EMAIL, contact).size();
+        int phones = phones(contact).size();
+        int linkedins = distinct(LINKEDIN, contact).size();
+        int githubs = distinct(GITHUB, contact).size();
+        StructuredResume.PersonalInfo unambiguous = new StructuredResume.PersonalInfo();
+        unambiguous.setName(personalInfo.getName());
+        unambiguous.setEmail(emails == 1 ? personalInfo.getEmail() : null);
+        unambiguous.setPhone(phones == 1 ? personalInfo.getPhone() : null);
+        unambiguous.setLinkedin(linkedins == 1 ? personalInfo.getLinkedin() : null);
+        unambiguous.setGithub(githubs == 1 ? personalInfo.getGithub() : null);
+
+        // Exact when the contact block holds one email and one phone number, and no
+        // more than one profile URL of each kind
+        boolean exact = emails == 1 && phones == 1 && linkedins <= 1 && githubs <= 1;
+
+        List<String> skills = sections.containsKey(Section.SKILLS) ? parseSkills(sections.get(Section.SKILLS)) : null;
+        return new Result(personalInfo, unambiguous, exact, skills);
+    }
+
+    /**
+     * A structured resume of the pre-extracted values alone, usable for autofill until
+     * the LLM extraction is done. Education and experience are left empty.
+     */
+    public static StructuredResume heuristicResume(String resumeText) {
+        Result result = extract(resumeText, ResumeSectionSplitter.split(resumeText));
+        StructuredResume resume = new StructuredResume();
+        resume.setPersonalInfo(result.getPersonalInfo());
+        resume.setEducation(new ArrayList<>());
+        resume.setExperience(new ArrayList<>());
+        resume.setSkills(result.hasSkills() ? new ArrayList<>(result.getSkills()) : new ArrayList<>());
+        return resume;
+    }
+
+    private static String find(Pattern pattern, String preferred, String fallback) {
+        Matcher matcher = pattern.matcher(preferred);
+        if (matcher.find()) {
+            return matcher.group();
+        }
+        matcher = pattern.matcher(fallback);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static Set<String> distinct(Pattern pattern, String text) {
+        Set<String> found = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            found.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return found;
+    }
+
+    private static String findPhone(String text) {
+        Set<String> phones = phones(text);
+        return phones.isEmpty() ? null : phones.iterator().next();
+    }
+
+    /**
+     * Phone numbers in the text, told apart by their digits.
+     */
+    private static Set<String> phones(String text) {
+        Map<String, String> byDigits = new LinkedHashMap<>();
+        Matcher matcher = PHONE.matcher(text);
+        while (matcher.find()) {
+            String candidate = matcher.group().strip();
+            String digits = candidate.replaceAll("\\D", "");
+            if (digits.length() >= MIN_PHONE_DIGITS && digits.length() <= MAX_PHONE_DIGITS) {
+                byDigits.putIfAbsent(digits, candidate);
+            }
+        }
+        return new LinkedHashSet<>(byDigits.values());
+    }
+
+    /**
+     * The first line at the top that is nothing but two to four words of letters, if an
+     * email or phone number is at most two lines away. Lines of title words, such as
+     * "Curriculum Vitae" or "Senior Software Engineer", are skipped.
+     */
+    private static String findName(List<String> lines) {
+        for (int i = 0; i < Math.min(lines.size(), NAME_SEARCH_LINES); i++) {
+            String line = lines.get(i);
+            if (!NAME.matcher(line).matches()) {
+                return null;
+            }
+            if (hasTitleWord(line)) {
+                continue;
+            }
+            if (!nearContactDetails(lines, i)) {
+                return null;
+            }
+            return line.equals(line.toUpperCase(Locale.ROOT)) ? titleCase(line) : line;
+        }
+        return null;
+    }
+
+    private static boolean hasTitleWord(String line) {
+        for (String word : line.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (NOT_NAME_WORDS.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean nearContactDetails(List<String> lines, int index) {
+        int from = Math.max(0, index - NAME_CONTACT_DISTANCE);
+        int to = Math.min(lines.size() - 1, index + NAME_CONTACT_DISTANCE);
+        for (int i = from; i <= to; i++) {
+            if (EMAIL.matcher(lines.get(i)).find() || !phones(lines.get(i)).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String titleCase(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        boolean startOfWord = true;
+        for (char c : name.toCharArray()) {
+            result.append(startOfWord ? c : Character.toLowerCase(c));
+            startOfWord = c == ' ' || c == '-' || c == '\'';
+        }
+        return result.toString();
+    }
+
+    /**
+     * Skills listed in the section, e.g. "Languages: Java, Python" or bullet lists.
+     * Returns null when the section does not look like a list, such as prose.
+     */
+    private static List<String> parseSkills(String section) {
+        Set<String> seen = new LinkedHashSet<>();
+        List<String> skills = new ArrayList<>();
+        for (String line : section.split("\\R")) {
+            String items = BULLET.matcher(line.strip()).replaceFirst("");
+            int colon = items.indexOf(':');
+            if (colon > 0 && items.substring(0, colon).split("\\s+").length <= 3) {
+                items = items.substring(colon + 1);
+            }
+            for (String item : SKILL_SEPARATORS.split(items)) {
+                String skill = item.strip();
+                if (skill.isEmpty()) {
+                    continue;
+                }
+                if (skill.length() > MAX_SKILL_LENGTH || skill.split("\\s+").length > MAX_SKILL_WORDS) {
+                    return null;
+                }
+                if (seen.add(skill.toLowerCase(Locale.ROOT))) {
+                    skills.add(skill);
+                }
+            }
+        }
+        return skills.size() >= MIN_SKILLS ? skills : null;
+    }
+
+    /**
+     * Pre-extracted values. Null fields were not found with high confidence.
+     */
+    public static final class Result {
+        private final StructuredResume.PersonalInfo personalInfo;
+        private final StructuredResume.PersonalInfo unambiguousPersonalInfo;
+        private final boolean exactContact;
+        private final List<String> skills;
+
+        private Result(StructuredResume.PersonalInfo personalInfo,
+                StructuredResume.PersonalInfo unambiguousPersonalInfo, boolean exactContact, List<String> skills) {
+            this.personalInfo = personalInfo;
+            this.unambiguousPersonalInfo = unambiguousPersonalInfo;
+            this.exactContact = exactContact;
+            this.skills = skills;
+        }
+
+        /**
+         * Best guesses: the first match of each kind, found anywhere in the text when the
+         * contact block has none.
+         */
+        public StructuredResume.PersonalInfo getPersonalInfo() {
+            return personalInfo;
+        }
+
+        /**
+         * Only the values the contact block holds exactly one of, which may override the
+         * LLM's answer. The rest are null.
+         */
+        public StructuredResume.PersonalInfo getUnambiguousPersonalInfo() {
+            return unambiguousPersonalInfo;
+        }
+
+        /**
+         * Whether the LLM need not be asked for personal info: name, email and phone were
+         * found, and the contact block left no choice between several emails, phone
+         * numbers or profile URLs. LinkedIn and GitHub are not required: a profile URL
+         * the regexes miss is not in the text either.
+         */
+        public boolean hasPersonalInfo() {
+            return exactContact && personalInfo.getName() != null && personalInfo.getEmail() != null
+                    && personalInfo.getPhone() != null;
+        }
+
+        public List<String> getSkills() {
+            return skills;
+        }
+
+        public boolean hasSkills() {
+            return skills != null;
+        }
+
+        public int filledFields() {
+            int filled = 0;
+            for (String value : new String[] {personalInfo.getName(), personalInfo.getEmail(),
+                    personalInfo.getPhone(), personalInfo.getLinkedin(), personalInfo.getGithub()}) {
+                if (value != null) {
+                    filled++;
+                }
+            }
+            return filled + (hasSkills() ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.jobautofill.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Renders the resume fragments that are embedded in autofill prompts.
+ * Rendering happens once per extracted resume, not once per field.
+ */
+public final class ResumePromptRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumePromptRenderer.class);
+
+    private ResumePromptRenderer() {
+        // Utility class
+    }
+
+    /**
+     * Renders the resume sections relevant to the intent in the given encoding, most
+     * relevant first, until {@code budgetTokens} is reached. A list section that does
+     * not fit is cut at the last whole entry; the most relevant section always keeps
+     * at least one entry.
+     */
+    public static String renderFocusedContext(IntentType intentType, StructuredResume resume,
+            ObjectMapper objectMapper, ResumeEncoding encoding, int budgetTokens) {
+        if (resume == null) {
+            return "{}";
+        }
+
+        try {
+            ObjectNode full = objectMapper.valueToTree(resume);
+            ObjectNode root = fillSections(sectionsFor(intentType), full, budgetTokens, objectMapper, encoding);
+            if (root.isEmpty()) {
+                root = fillSections(sectionsFor(IntentType.UNKNOWN), full, budgetTokens, objectMapper, encoding);
+            }
+            return encoding.render(root, objectMapper);
+        } catch (Exception e) {
+            log.warn("Failed to build focused context for intent {}", intentType, e);
+            return "{}";
+        }
+    }
+
+    /**
+     * The resume sections the focused context of an intent is cut from, whole and in
+     * compact JSON. Unlike {@link #renderFocusedContext} it ignores the token budget, so
+     * it changes whenever anything the intent could read changes.
+     */
+    public static String renderSourceSections(IntentType intentType, StructuredResume resume,
+            ObjectMapper objectMapper) {
+        if (resume == null) {
+            return "{}";
+        }
+
+        ObjectNode full = objectMapper.valueToTree(resume);
+        ObjectNode root = selectSections(sectionsFor(intentType), full, objectMapper);
+        if (root.isEmpty()) {
+            root = selectSections(sectionsFor(IntentType.UNKNOWN), full, objectMapper);
+        }
+        return root.toString();
+    }
+
+    private static ObjectNode selectSections(List<Section> sections, ObjectNode full, ObjectMapper objectMapper) {
+        ObjectNode root = objectMapper.createObjectNode();
+        for (Section section : sections) {
+            JsonNode value = section.select.apply(full);
+            if (value != null && !value.isNull() && !value.isEmpty()) {
+                root.set(section.key, value);
+            }
+        }
+        return root;
+    }
+
+    private static ObjectNode fillSections(List<Section> sections, ObjectNode full, int budgetTokens,
+            ObjectMapper objectMapper, ResumeEncoding encoding) throws Exception {
+        ObjectNode root = objectMapper.createObjectNode();
+        for (Section section : sections) {
+            JsonNode value = section.select.apply(full);
+            if (value == null || value.isNull() || value.isEmpty()) {
+                continue;
+            }
+
+            boolean mostRelevant = root.isEmpty();
+            root.set(section.key, value);
+            if (fits(root, budgetTokens, objectMapper, encoding)) {
+                continue;
+            }
+
+            // Budget reached: keep whatever part of this section still fits and stop
+            if (value.isArray()) {
+                ArrayNode partial = root.putArray(section.key);
+                for (JsonNode item : value) {
+                    partial.add(item);
+                    if (!fits(root, budgetTokens, objectMapper, encoding)) {
+                        partial.remove(partial.size() - 1);
+                        break;
+                    }
+                }
+                if (partial.isEmpty() && mostRelevant) {
+                    partial.add(value.get(0));
+                }
+                if (partial.isEmpty()) {
+                    root.remove(section.key);
+                }
+            } else if (!mostRelevant) {
+                root.remove(section.key);
+            }
+            break;
+        }
+        return root;
+    }
+
+    private static boolean fits(ObjectNode root, int budgetTokens, ObjectMapper objectMapper,
+            ResumeEncoding encoding) throws Exception {
+        return TokenEstimator.estimate(encoding.render(root, objectMapper)) <= budgetTokens;
+    }
+
+    /**
+     * Resume sections for an intent, most relevant first.
+     */
+    private static List<Section> sectionsFor(IntentType intentType) {
+        return switch (intentType) {
+            case SKILL_LIST -> List.of(Section.of("skills"), Section.of("experience"));
+            case EXPERIENCE_SUMMARY -> List.of(Section.of("experience"), Section.of("skills"));
+            case EDUCATION_INSTITUTION, EDUCATION_DEGREE, EDUCATION_YEAR -> List.of(Section.of("education"));
+            case GITHUB_URL -> List.of(Section.profile("github"));
+            case LINKEDIN_URL, PORTFOLIO_URL -> List.of(Section.profile("linkedin"));
+            case MOTIVATION_STATEMENT -> List.of(
+                    new Section("experience_highlights", full -> full.get("experience")), Section.of("skills"));
+            case COVER_LETTER -> List.of(Section.of("experience"), Section.of("skills"), Section.of("education"),
+                    Section.of("personal_info"));
+            case ACADEMIC_STATUS -> List.of(Section.of("education"), Section.of("experience"),
+                    Section.of("personal_info"), Section.of("skills"));
+            default -> List.of(Section.of("personal_info"), Section.of("experience"), Section.of("education"),
+                    Section.of("skills"));
+        };
+    }
+
+    /**
+     * Whether {@link #renderFocusedContext} renders a dedicated slice for this intent
+     * rather than falling back to the whole resume.
+     */
+    public static boolean hasFocusedSection(IntentType intentType) {
+        return switch (intentType) {
+            case SKILL_LIST, EXPERIENCE_SUMMARY, EDUCATION_INSTITUTION, EDUCATION_DEGREE, EDUCATION_YEAR,
+                    GITHUB_URL, LINKEDIN_URL, PORTFOLIO_URL, MOTIVATION_STATEMENT -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Renders the whole resume in the given encoding.
+     */
+    public static String renderFullResume(StructuredResume resume, ObjectMapper objectMapper,
+            ResumeEncoding encoding) {
+        try {
+            return encoding.render(objectMapper.valueToTree(resume), objectMapper);
+        } catch (Exception e) {
+            log.warn("Failed to serialize object to JSON", e);
+            return "{}";
+        }
+    }
+
+    private static final class Section {
+        private final String key;
+        private final Function<ObjectNode, JsonNode> select;
+
+        private Section(String key, Function<ObjectNode, JsonNode> select) {
+            this.key = key;
+            this.select = select;
+        }
+
+        static Section of(String key) {
+            return new Section(key, full -> full.get(key));
+        }
+
+        /**
+         * A single personal_info link, as {@code {"profile": {"github": "..."}}}.
+         */
+        static Section profile(String field) {
+            return new Section("profile", full -> {
+                JsonNode link = full.path("personal_info").path(field);
+                return JsonNodeFactory.instance.objectNode().put(field, link.isTextual() ? link.asText() : "");
+            });
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.jobautofill.util;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits plain resume text into sections by detecting heading lines such as
+ * "EDUCATION", "Work Experience:" or "Technical Skills".
+ * Text before the first heading is treated as contact details. Sections the
+ * structured resume has no place for (summary, awards, ...) are dropped.
+ */
+public final class ResumeSectionSplitter {
+
+    public enum Section { CONTACT, EDUCATION, EXPERIENCE, SKILLS, OTHER }
+
+    private static final int MAX_HEADING_LENGTH = 40;
+    private static final int MAX_HEADING_WORDS = 4;
+
+    private static final Map<Section, List<String>> HEADINGS = Map.of(
+            Section.CONTACT, List.of("contact", "contact information", "contact details", "personal details",
+                    "personal information"),
+            Section.EDUCATION, List.of("education", "academic", "academics", "academic background",
+                    "qualifications", "educational qualifications"),
+            Section.EXPERIENCE, List.of("experience", "work experience", "professional experience", "employment",
+                    "employment history", "work history", "career history", "internship", "internships",
+                    "projects", "academic projects", "personal projects"),
+            Section.SKILLS, List.of("skills", "technical skills", "key skills", "core competencies", "technologies",
+                    "tech stack", "tools", "skills and tools", "programming languages", "coding languages",
+                    "languages and frameworks", "languages and tools"),
+            // A bare "Languages" heading usually lists spoken languages, which are not skills
+            Section.OTHER, List.of("summary", "profile", "objective", "about me", "certifications", "certificates",
+                    "achievements", "awards", "publications", "interests", "hobbies", "references",
+                    "activities", "extracurricular activities", "volunteering", "leadership", "languages",
+                    "spoken languages", "language skills", "languages known"));
+
+    private ResumeSectionSplitter() {
+        // Utility class
+    }
+
+    /**
+     * Text per section, without the heading lines. Only sections that were found are
+     * present; {@link Section#OTHER} is never returned.
+     */
+    public static Map<Section, String> split(String resumeText) {
+        Map<Section, StringBuilder> sections = new EnumMap<>(Section.class);
+        Section current = Section.CONTACT;
+        for (String line : resumeText.split("\\R")) {
+            Section heading = headingOf(line);
+            if (heading != null) {
+                current = heading;
+                continue;
+            }
+            if (!line.isBlank()) {
+                sections.computeIfAbsent(current, key -> new StringBuilder()).append(line.strip()).append('\n');
+            }
+        }
+
+        Map<Section, String> result = new EnumMap<>(Section.class);
+        sections.forEach((section, text) -> {
+            if (section != Section.OTHER) {
+                result.put(section, text.toString());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Whether enough sections were found for section-wise extraction to see the whole
+     * resume: at least two of education, experience and skills.
+     */
+    public static boolean isSplittable(Map<Section, String> sections) {
+        int found = 0;
+        for (Section section : List.of(Section.EDUCATION, Section.EXPERIENCE, Section.SKILLS)) {
+            if (sections.containsKey(section)) {
+                found++;
+            }
+        }
+        return found >= 2;
+    }
+
+    private static Section headingOf(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_HEADING_LENGTH) {
+            return null;
+        }
+
+        String normalized = trimmed.toLowerCase(Locale.ROOT)
+                .replace("&", "and")
+                .replaceAll("[^a-z ]", " ")
+                .replaceAll("\\s+", " ")
+                .strip();
+        if (normalized.isEmpty() || normalized.split(" ").length > MAX_HEADING_WORDS) {
+            return null;
+        }
+
+        for (Map.Entry<Section, List<String>> entry : HEADINGS.entrySet()) {
+            if (entry.getValue().contains(normalized)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.jobautofill.util;
+
+import com.jobautofill.model.OllamaRequest;
+
+import java.util.List;
+
+/**
+ * Rough, tokenizer-free token count for prompts.
+ * English text and JSON average about four characters per token for the models
+ * we run, which is close enough to pick a context size and enforce budgets.
+ * The real count is reported by Ollama as {@code prompt_eval_count}.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Role markers and separators the chat template adds around each message
+    private static final int MESSAGE_OVERHEAD = 4;
+
+    private TokenEstimator() {
+        // Utility class
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public static int estimate(List<OllamaRequest.Message> messages) {
+        int tokens = 0;
+        for (OllamaRequest.Message message : messages) {
+            tokens += MESSAGE_OVERHEAD + estimate(message.getContent());
+        }
+        return tokens;
+    }
+}
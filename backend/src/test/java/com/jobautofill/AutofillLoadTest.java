@@ -0,0 +1,224 @@
+package com.jobautofill;
+
+import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.storage.ResumeStorage;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the autofill path against a stub Ollama that takes {@value #STUB_DELAY_MS} ms
+ * per chat call. Many more requests are outstanding than Ollama calls may run at once, so
+ * a blocking implementation would hold one servlet thread per request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ollama.preload=false",
+        "ollama.limiter.enabled=false",
+        "ollama.scheduler.max-concurrent=" + AutofillLoadTest.OLLAMA_SLOTS,
+        "ollama.scheduler.interactive-reserve=0",
+        "ollama.scheduler.interactive.max-concurrent=" + AutofillLoadTest.OLLAMA_SLOTS,
+        "ollama.scheduler.interactive.max-queue=1000",
+        "autofill.cache.enabled=false",
+        "autofill.extraction.cache.enabled=false",
+        "autofill.extraction.start-on-upload=false"
+})
+class AutofillLoadTest {
+
+    static final int OLLAMA_SLOTS = 16;
+    private static final long STUB_DELAY_MS = 250;
+    private static final int REQUESTS = 300;
+
+    private static final MockWebServer ollama = new MockWebServer();
+    private static final AtomicInteger chatCalls = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ResumeStorage resumeStorage;
+
+    @BeforeAll
+    static void startOllama() throws IOException {
+        ollama.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath() != null ? request.getPath() : "";
+                if (path.startsWith("/api/chat")) {
+                    chatCalls.incrementAndGet();
+                    return json("""
+                            {"model":"stub","done":true,"total_duration":%d,"message":{"role":"assistant",
+                            "content":"{\\"suggested_value\\":\\"stub answer\\",\\"confidence\\":0.9,\
+                            \\"reasoning\\":\\"stub\\",\\"field_matched\\":\\"experience\\"}"}}
+                            """.formatted(TimeUnit.MILLISECONDS.toNanos(STUB_DELAY_MS)))
+                            .setBodyDelay(STUB_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+                if (path.startsWith("/api/tags") || path.startsWith("/api/ps")) {
+                    return json("{\"models\":[]}");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        ollama.start();
+    }
+
+    @AfterAll
+    static void stopOllama() throws IOException {
+        ollama.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void ollamaProperties(DynamicPropertyRegistry registry) {
+        registry.add("ollama.base-url", () -> "http://localhost:" + ollama.getPort());
+    }
+
+    @BeforeEach
+    void storeResume() {
+        StructuredResume resume = new StructuredResume();
+        StructuredResume.PersonalInfo info = new StructuredResume.PersonalInfo();
+        info.setName("Jane Doe");
+        resume.setPersonalInfo(info);
+        StructuredResume.Experience experience = new StructuredResume.Experience();
+        experience.setTitle("Backend Engineer");
+        experience.setCompany("Acme");
+        experience.setDescription("Built the order pipeline");
+        resume.setExperience(List.of(experience));
+        resume.setEducation(List.of());
+        resume.setSkills(List.of("Java"));
+
+        ResumeData resumeData = new ResumeData("resume.pdf", "Jane Doe");
+        resumeStorage.store(resumeData);
+        resumeStorage.storeExtraction(resumeData, resume);
+    }
+
+    @Test
+    void threadsStayBoundedWhileManyLlmCallsAreOutstanding() throws InterruptedException {
+        WebClient client = client(REQUESTS);
+        // Warm up Tomcat and both HTTP clients before taking the baseline
+        call(client, "Warm up question").block(Duration.ofSeconds(30));
+        int baselineThreads = threadCount();
+        int baselineWorkers = servletWorkerCount();
+
+        AtomicInteger peakThreads = new AtomicInteger(baselineThreads);
+        AtomicInteger peakWorkers = new AtomicInteger(baselineWorkers);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peakThreads.accumulateAndGet(threadCount(), Math::max);
+                peakWorkers.accumulateAndGet(servletWorkerCount(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "thread-sampler");
+        sampler.start();
+
+        long started = System.nanoTime();
+        List<AutofillResponse> responses = Flux.range(0, REQUESTS)
+                .flatMap(i -> call(client, "Describe a project you are proud of " + i), REQUESTS)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        running.set(false);
+        sampler.join();
+
+        double idealMs = Math.ceil((double) REQUESTS / OLLAMA_SLOTS) * STUB_DELAY_MS;
+        double throughput = REQUESTS * 1000.0 / elapsedMs;
+        System.out.printf("%d requests, %d Ollama slots, %d ms stub delay: %d ms (ideal %.0f ms), %.1f req/s;"
+                        + " JVM threads %d -> peak %d, servlet workers %d -> peak %d%n",
+                REQUESTS, OLLAMA_SLOTS, STUB_DELAY_MS, elapsedMs, idealMs, throughput,
+                baselineThreads, peakThreads.get(), baselineWorkers, peakWorkers.get());
+
+        assertThat(responses).hasSize(REQUESTS)
+                .allSatisfy(response -> assertThat(response.getSuggestedValue()).isEqualTo("stub answer"));
+        // A thread per outstanding request would add about REQUESTS threads
+        assertThat(peakThreads.get() - baselineThreads).isLessThan(REQUESTS / 4);
+        assertThat(peakWorkers.get()).isLessThan(REQUESTS / 4);
+        // Every Ollama slot stays busy: close to REQUESTS / OLLAMA_SLOTS rounds of the stub delay
+        assertThat((double) elapsedMs).isLessThan(idealMs * 2);
+    }
+
+    @Test
+    void concurrentRequestsForTheSameFieldShareOneGeneration() {
+        WebClient client = client(20);
+        int before = chatCalls.get();
+
+        List<AutofillResponse> responses = Flux.range(0, 20)
+                .flatMap(i -> call(client, "What are you most proud of?"), 20)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(responses).hasSize(20)
+                .allSatisfy(response -> assertThat(response.getSuggestedValue()).isEqualTo("stub answer"));
+        assertThat(chatCalls.get() - before).isEqualTo(1);
+    }
+
+    private WebClient client(int connections) {
+        ConnectionProvider provider = ConnectionProvider.builder("load-test")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private static Mono<AutofillResponse> call(WebClient client, String label) {
+        return client.post()
+                .uri("/api/autofill")
+                .bodyValue(Map.of("field_label", label, "field_type", "textarea"))
+                .retrieve()
+                .bodyToMono(AutofillResponse.class);
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static int threadCount() {
+        return ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+
+    // Tomcat request threads are named http-nio-<port>-exec-<n>
+    private static int servletWorkerCount() {
+        int workers = 0;
+        for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(false, false)) {
+            if (info.getThreadName().contains("-exec-")) {
+                workers++;
+            }
+        }
+        return workers;
+    }
+}
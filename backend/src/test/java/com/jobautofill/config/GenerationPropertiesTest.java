@@ -0,0 +1,45 @@
+package com.jobautofill.config;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationPropertiesTest {
+
+    @Test
+    void batchNumPredictSumsThePackedFieldsProfiles() {
+        GenerationProperties generation = properties();
+
+        assertThat(generation.batchOptions(List.of(IntentType.COVER_LETTER, IntentType.GITHUB_URL,
+                IntentType.UNKNOWN)))
+                .containsEntry("num_predict", 800 + 128 + 160)
+                .containsEntry("temperature", 0.0);
+    }
+
+    @Test
+    void shortFieldsGetAtLeastThePerFieldFloor() {
+        GenerationProperties generation = properties();
+
+        assertThat(generation.batchOptions(List.of(IntentType.GITHUB_URL, IntentType.EDUCATION_YEAR)))
+                .containsEntry("num_predict", 2 * 128);
+    }
+
+    private static GenerationProperties properties() {
+        GenerationProperties generation = new GenerationProperties();
+        generation.getDefaults().setNumPredict(160);
+        generation.getDefaults().setTemperature(0.0);
+        generation.getIntents().put(IntentType.GITHUB_URL, profile(96));
+        generation.getIntents().put(IntentType.EDUCATION_YEAR, profile(96));
+        generation.getIntents().put(IntentType.COVER_LETTER, profile(800));
+        return generation;
+    }
+
+    private static GenerationProperties.Profile profile(int numPredict) {
+        GenerationProperties.Profile profile = new GenerationProperties.Profile();
+        profile.setNumPredict(numPredict);
+        return profile;
+    }
+}
@@ -0,0 +1,114 @@
+package com.jobautofill.service;
+
+import com.jobautofill.model.OllamaResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private OllamaScheduler scheduler;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = mock(OllamaScheduler.class);
+        when(scheduler.getGlobalLimit()).thenReturn(4);
+        limiter = new AdaptiveConcurrencyLimiter(scheduler);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "minLimit", 1);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 8);
+        ReflectionTestUtils.setField(limiter, "queueDelayTolerance", 500L);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.75);
+        limiter.init();
+    }
+
+    @Test
+    void queueingInsideOllamaIsTotalDurationMinusWork() {
+        // Wall time matches total_duration, as it does against a local Ollama
+        OllamaResponse response = response(2000, 0, 200, 300);
+        long delay = AdaptiveConcurrencyLimiter.queueDelayNanos(ms(2000), response);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(delay)).isEqualTo(1500);
+    }
+
+    @Test
+    void clientSideGapAddsToServerQueueing() {
+        OllamaResponse response = response(1000, 100, 200, 300);
+        long delay = AdaptiveConcurrencyLimiter.queueDelayNanos(ms(1250), response);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(delay)).isEqualTo(400 + 250);
+    }
+
+    @Test
+    void limitDecreasesWhenOllamaQueuesCalls() {
+        for (int i = 0; i < 4; i++) {
+            limiter.onResponse(ms(2000), response(2000, 0, 200, 300));
+        }
+
+        assertThat(limiter.getStats()).containsEntry("limit", 3).containsEntry("decreases", 1L);
+        verify(scheduler).setGlobalLimit(3);
+    }
+
+    @Test
+    void cutsAreSpacedByOneLimitOfSamples() {
+        for (int i = 0; i < 4 + 2; i++) {
+            limiter.onResponse(ms(2000), response(2000, 0, 200, 300));
+        }
+        assertThat(limiter.getStats()).containsEntry("limit", 3);
+
+        limiter.onResponse(ms(2000), response(2000, 0, 200, 300));
+        assertThat(limiter.getStats()).containsEntry("limit", 2);
+    }
+
+    @Test
+    void limitHoldsWhenOllamaIsOnlyWorking() {
+        when(scheduler.isSaturated()).thenReturn(false);
+        for (int i = 0; i < 20; i++) {
+            limiter.onResponse(ms(1000), response(1000, 100, 300, 600));
+        }
+
+        assertThat(limiter.getStats()).containsEntry("limit", 4).containsEntry("decreases", 0L);
+        verify(scheduler, never()).setGlobalLimit(3);
+    }
+
+    @Test
+    void limitGrowsWhileSaturatedAndDelayIsFlat() {
+        when(scheduler.isSaturated()).thenReturn(true);
+        for (int i = 0; i < 4; i++) {
+            limiter.onResponse(ms(1000), response(1000, 100, 300, 600));
+        }
+
+        assertThat(limiter.getStats()).containsEntry("limit", 5).containsEntry("increases", 1L);
+        verify(scheduler).setGlobalLimit(5);
+    }
+
+    @Test
+    void timeoutsCountAsOverload() {
+        for (int i = 0; i < 4; i++) {
+            limiter.onError(new TimeoutException());
+        }
+
+        assertThat(limiter.getStats()).containsEntry("limit", 3);
+    }
+
+    private static OllamaResponse response(long totalMs, long loadMs, long promptEvalMs, long evalMs) {
+        OllamaResponse response = new OllamaResponse();
+        response.setTotalDuration(ms(totalMs));
+        response.setLoadDuration(ms(loadMs));
+        response.setPromptEvalDuration(ms(promptEvalMs));
+        response.setEvalDuration(ms(evalMs));
+        return response;
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
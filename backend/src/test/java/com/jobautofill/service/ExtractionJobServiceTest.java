@@ -0,0 +1,141 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.PromptBudgetProperties;
+import com.jobautofill.model.ExtractionJobStatus;
+import com.jobautofill.model.ExtractionJobStatus.Stage;
+import com.jobautofill.model.ExtractionJobStatus.State;
+import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.storage.AutofillAnswerCache;
+import com.jobautofill.storage.ExtractionCache;
+import com.jobautofill.storage.ResumeStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ExtractionJobServiceTest {
+
+    private static final String TEXT = "Jane Doe\njane.doe@example.com\nExperience\nBackend Engineer, Acme";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Sinks.One<StructuredResume> llm = Sinks.one();
+    private final AtomicReference<ResumeExtractionService.ProgressListener> progress = new AtomicReference<>();
+    private ResumeExtractionService extractionService;
+    private ResumeStorage resumeStorage;
+    private ExtractionJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        extractionService = mock(ResumeExtractionService.class);
+        doReturn("llama3.2|single|pre-extract|3").when(extractionService).getExtractionSignature();
+        doAnswer(invocation -> {
+            progress.set(invocation.getArgument(1));
+            return llm.asMono();
+        }).when(extractionService).extractStructuredResume(anyString(),
+                any(ResumeExtractionService.ProgressListener.class));
+
+        resumeStorage = new ResumeStorage(objectMapper, new AutofillAnswerCache(objectMapper),
+                new PromptBudgetProperties());
+        ReflectionTestUtils.setField(resumeStorage, "resumeEncoding", "compact-json");
+        ExtractionCache extractionCache = new ExtractionCache(objectMapper);
+        ReflectionTestUtils.setField(extractionCache, "enabled", false);
+        jobService = new ExtractionJobService(extractionService, resumeStorage, extractionCache);
+        ReflectionTestUtils.setField(jobService, "jobRetentionMillis", 3_600_000L);
+    }
+
+    @Test
+    void attachesAReUploadOfTheSameTextToTheRunningJob() {
+        ResumeData first = upload("resume.pdf");
+        ExtractionJobService.Submission started = jobService.submit(first);
+        ResumeData second = upload("resume-copy.pdf");
+        ExtractionJobService.Submission attached = jobService.submit(second);
+
+        assertThat(started.attached()).isFalse();
+        assertThat(attached.attached()).isTrue();
+        assertThat(attached.status().getJobId()).isEqualTo(started.status().getJobId());
+        verify(extractionService, times(1)).extractStructuredResume(anyString(),
+                any(ResumeExtractionService.ProgressListener.class));
+
+        llm.tryEmitValue(resume());
+        ExtractionJobStatus done = jobService.awaitCompletion(started.status().getJobId())
+                .block(Duration.ofSeconds(5));
+        // The result is published for the upload that is current now
+        assertThat(done.getState()).isEqualTo(State.SUCCEEDED);
+        assertThat(resumeStorage.get()).isSameAs(second);
+        assertThat(resumeStorage.getSnapshot().getVersion()).isEqualTo(done.getSnapshotVersion());
+
+        // Once finished, the same text starts a new job
+        assertThat(jobService.submit(upload("resume.pdf")).attached()).isFalse();
+    }
+
+    @Test
+    void eventsReportStagesAndCompleteOnSuccess() {
+        ResumeData resumeData = upload("resume.pdf");
+        String jobId = jobService.startFromUpload(resumeData).status().getJobId();
+        progress.get().onPrompts(0, 2);
+        progress.get().onPrompts(1, 2);
+
+        // The stream replays the latest status to a new subscriber
+        ExtractionJobStatus latest = jobService.events(jobId).orElseThrow().blockFirst(Duration.ofSeconds(5));
+        assertThat(latest.getStage()).isEqualTo(Stage.EXTRACTING);
+        assertThat(latest.getPromptsAnswered()).isEqualTo(1);
+        assertThat(latest.getPromptsTotal()).isEqualTo(2);
+        assertThat(latest.isHeuristicPublished()).isTrue();
+
+        var events = jobService.events(jobId).orElseThrow().collectList().toFuture();
+        progress.get().onPrompts(2, 2);
+        llm.tryEmitValue(resume());
+
+        List<ExtractionJobStatus> statuses = events.join();
+        ExtractionJobStatus last = statuses.get(statuses.size() - 1);
+        assertThat(last.getState()).isEqualTo(State.SUCCEEDED);
+        assertThat(last.getStage()).isEqualTo(Stage.DONE);
+        assertThat(statuses).extracting(ExtractionJobStatus::getStage).contains(Stage.PUBLISHING);
+        assertThat(statuses).extracting(ExtractionJobStatus::getPromptsAnswered).contains(2);
+    }
+
+    @Test
+    void eventsCompleteOnFailure() {
+        String jobId = jobService.submit(upload("resume.pdf")).status().getJobId();
+        var events = jobService.events(jobId).orElseThrow().collectList().toFuture();
+
+        llm.tryEmitError(new IllegalStateException("model not found"));
+
+        List<ExtractionJobStatus> statuses = events.join();
+        ExtractionJobStatus last = statuses.get(statuses.size() - 1);
+        assertThat(last.getState()).isEqualTo(State.FAILED);
+        assertThat(last.getError()).contains("model not found");
+        assertThat(jobService.events(jobId).orElseThrow().collectList().block(Duration.ofSeconds(5)))
+                .extracting(ExtractionJobStatus::getState).containsExactly(State.FAILED);
+    }
+
+    private ResumeData upload(String fileName) {
+        ResumeData resumeData = new ResumeData(fileName, TEXT);
+        resumeStorage.store(resumeData);
+        return resumeData;
+    }
+
+    private static StructuredResume resume() {
+        StructuredResume.PersonalInfo personalInfo = new StructuredResume.PersonalInfo();
+        personalInfo.setName("Jane Doe");
+        StructuredResume resume = new StructuredResume();
+        resume.setPersonalInfo(personalInfo);
+        resume.setSkills(List.of("Java"));
+        return resume;
+    }
+}
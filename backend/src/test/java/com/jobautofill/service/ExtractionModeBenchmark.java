@@ -0,0 +1,136 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.util.ResumeSectionSplitter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Extracts every PDF of a corpus with the single prompt and with section-wise prompts,
+ * one file and one mode at a time, against a running Ollama, and reports latency and
+ * failures per mode. Run it with
+ * {@code mvn test -Dtest=ExtractionModeBenchmark -Dbenchmark.corpus=<dir of PDFs>}
+ * and optionally {@code -Dbenchmark.ollama-url=http://host:11434}. Results are printed
+ * and written to {@code target/benchmarks/extraction-modes.json}.
+ */
+@SpringBootTest(properties = {
+        "ollama.preload=false",
+        "autofill.cache.enabled=false",
+        "autofill.extraction.cache.enabled=false"
+})
+@EnabledIfSystemProperty(named = "benchmark.corpus", matches = ".+")
+class ExtractionModeBenchmark {
+
+    private static final List<String> EXTRACTION_MODES =
+            List.of(ResumeExtractionService.SINGLE_EXTRACTION, ResumeExtractionService.SECTIONED_EXTRACTION);
+    private static final Duration EXTRACTION_TIMEOUT = Duration.ofMinutes(5);
+
+    @Autowired
+    private ResumeExtractionService extractionService;
+
+    @Autowired
+    private ResumeParserService parserService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void ollamaProperties(DynamicPropertyRegistry registry) {
+        registry.add("ollama.base-url", () -> System.getProperty("benchmark.ollama-url", "http://localhost:11434"));
+    }
+
+    @Test
+    void compareExtractionModes() throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Path pdf : corpus()) {
+            byte[] bytes = Files.readAllBytes(pdf);
+            String text = parserService.extractTextFromPdf(
+                    new MockMultipartFile("file", pdf.getFileName().toString(), "application/pdf", bytes));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", pdf.getFileName().toString());
+            result.put("sections_detected", ResumeSectionSplitter.split(text).keySet());
+            for (String mode : EXTRACTION_MODES) {
+                result.put(mode, run(text, mode));
+            }
+            System.out.println(result);
+            results.add(result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("files", results);
+        report.put("summary", summarize(results));
+        System.out.println("Extraction modes: " + report.get("summary"));
+
+        Path out = Paths.get("target", "benchmarks", "extraction-modes.json");
+        Files.createDirectories(out.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+        assertThat(results).isNotEmpty();
+    }
+
+    private Map<String, Object> run(String text, String mode) {
+        long started = System.currentTimeMillis();
+        String error = null;
+        try {
+            extractionService.extractStructuredResume(text, mode).block(EXTRACTION_TIMEOUT);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+        }
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("ms", System.currentTimeMillis() - started);
+        run.put("ok", error == null);
+        if (error != null) {
+            run.put("error", error);
+        }
+        return run;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> summarize(List<Map<String, Object>> results) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (String mode : EXTRACTION_MODES) {
+            long runs = 0;
+            long failures = 0;
+            long totalMs = 0;
+            for (Map<String, Object> result : results) {
+                Map<String, Object> run = (Map<String, Object>) result.get(mode);
+                runs++;
+                totalMs += (Long) run.get("ms");
+                if (!(Boolean) run.get("ok")) {
+                    failures++;
+                }
+            }
+            Map<String, Object> modeSummary = new LinkedHashMap<>();
+            modeSummary.put("runs", runs);
+            modeSummary.put("failures", failures);
+            modeSummary.put("failure_rate", runs == 0 ? 0.0 : (double) failures / runs);
+            modeSummary.put("avg_ms", runs == 0 ? 0 : totalMs / runs);
+            summary.put(mode, modeSummary);
+        }
+        return summary;
+    }
+
+    private static List<Path> corpus() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("benchmark.corpus")))) {
+            return files.filter(path -> path.toString().toLowerCase().endsWith(".pdf")).sorted().toList();
+        }
+    }
+}
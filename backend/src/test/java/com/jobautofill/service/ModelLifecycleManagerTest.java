@@ -0,0 +1,138 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.config.ModelRoutingProperties;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ModelLifecycleManagerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockWebServer server = new MockWebServer();
+    // "model keep_alive" of every /api/generate call
+    private final List<String> generateCalls = new CopyOnWriteArrayList<>();
+    private ModelLifecycleManager lifecycle;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                try {
+                    JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+                    generateCalls.add(body.path("model").asText() + " " + body.path("keep_alive").asText());
+                } catch (IOException e) {
+                    return new MockResponse().setResponseCode(400);
+                }
+                return new MockResponse().setHeader("Content-Type", "application/json")
+                        .setBody("{\"done\": true, \"load_duration\": 1000000}");
+            }
+        });
+        server.start();
+        OllamaEndpointPool pool = new OllamaEndpointPool(List.of(server.url("/").toString()), WebClient::create,
+                false, 3);
+        lifecycle = new ModelLifecycleManager(pool, new GenerationProperties());
+        ReflectionTestUtils.setField(lifecycle, "keepAlive", "30m");
+        ReflectionTestUtils.setField(lifecycle, "loadTimeout", 5000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void preloadsEachDistinctModelOnce() throws InterruptedException {
+        lifecycle.preload(List.of("gemma3", "llama3.2:1b", "gemma3", "qwen2.5"));
+        awaitCalls(3);
+
+        assertThat(generateCalls).containsExactly("gemma3 30m", "llama3.2:1b 30m", "qwen2.5 30m");
+        Map<String, Object> status = awaitLoaded("qwen2.5");
+        assertThat(status).containsEntry("name", "gemma3").containsEntry("state", "loaded");
+        assertThat(routedNames(status)).containsExactly("llama3.2:1b", "qwen2.5");
+    }
+
+    @Test
+    void switchKeepsRoutedModelsLoaded() throws InterruptedException {
+        lifecycle.preload(List.of("gemma3", "llama3.2:1b"));
+        awaitCalls(2);
+        awaitLoaded("llama3.2:1b");
+
+        lifecycle.switchModel("gemma3", "mistral");
+        awaitCalls(4);
+
+        assertThat(generateCalls.subList(2, 4)).containsExactly("gemma3 0", "mistral 30m");
+        Map<String, Object> status = awaitLoaded("mistral");
+        assertThat(status).containsEntry("name", "mistral");
+        assertThat(routedNames(status)).containsExactly("llama3.2:1b");
+    }
+
+    @Test
+    void ollamaServicePreloadsTheDefaultAndRoutedModels() {
+        ModelRoutingProperties routing = new ModelRoutingProperties();
+        routing.getIntents().put(IntentType.GITHUB_URL, "llama3.2:1b");
+        routing.getIntents().put(IntentType.EDUCATION_YEAR, "llama3.2:1b");
+        routing.setExtractionModel("qwen2.5");
+        ModelLifecycleManager modelLifecycle = mock(ModelLifecycleManager.class);
+        OllamaService service = new OllamaService(null, objectMapper, null, modelLifecycle, null, null, null, null,
+                null, routing, new GenerationProperties());
+        ReflectionTestUtils.setField(service, "model", "gemma3");
+        ReflectionTestUtils.setField(service, "preload", true);
+
+        service.preloadModel();
+
+        verify(modelLifecycle).preload(List.of("gemma3", "llama3.2:1b", "qwen2.5"));
+    }
+
+    private void awaitCalls(int count) throws InterruptedException {
+        for (int i = 0; i < 200 && generateCalls.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(generateCalls).hasSize(count);
+    }
+
+    // The model's status, once its load response has been handled
+    private Map<String, Object> awaitLoaded(String model) throws InterruptedException {
+        for (int i = 0; i < 200 && !loaded(lifecycle.getStatus(), model); i++) {
+            Thread.sleep(10);
+        }
+        Map<String, Object> status = lifecycle.getStatus();
+        assertThat(loaded(status, model)).isTrue();
+        return status;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean loaded(Map<String, Object> status, String model) {
+        if (model.equals(status.get("name"))) {
+            return "loaded".equals(status.get("state"));
+        }
+        return ((List<Map<String, Object>>) status.getOrDefault("routed_models", List.of())).stream()
+                .anyMatch(routed -> model.equals(routed.get("name")) && "loaded".equals(routed.get("state")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> routedNames(Map<String, Object> status) {
+        return ((List<Map<String, Object>>) status.get("routed_models")).stream()
+                .map(routed -> routed.get("name"))
+                .toList();
+    }
+}
@@ -0,0 +1,193 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.config.ModelRoutingProperties;
+import com.jobautofill.model.AutofillRequest;
+import com.jobautofill.model.AutofillResponse;
+import com.jobautofill.model.OllamaRequest;
+import com.jobautofill.model.OllamaResponse;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.storage.AutofillAnswerCache;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.ResumeEncoding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class MultiFieldGenerationServiceTest {
+
+    private static final Pattern FIELD_ALIAS = Pattern.compile("^- (f\\d+): label=\"([^\"]*)\"", Pattern.MULTILINE);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ModelRoutingProperties routing = new ModelRoutingProperties();
+    private final List<ChatCall> chatCalls = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> singleFieldCalls = Collections.synchronizedList(new ArrayList<>());
+    private OllamaService ollamaService;
+    private MultiFieldGenerationService service;
+    private ResumeSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        OllamaService real = new OllamaService(null, objectMapper, new AutofillAnswerCache(objectMapper), null, null,
+                null, null, null, null, routing, new GenerationProperties());
+        ReflectionTestUtils.setField(real, "model", "default-model");
+        ReflectionTestUtils.setField(real, "promptLayout", "resume-prefix");
+        ollamaService = spy(real);
+        doAnswer(invocation -> {
+            AutofillRequest field = invocation.getArgument(0);
+            singleFieldCalls.add(field.getFieldLabel());
+            return Mono.just(answer(field.getFieldLabel()));
+        }).when(ollamaService).generateField(any(), any(), any());
+        service = new MultiFieldGenerationService(ollamaService, objectMapper, new GenerationProperties());
+
+        StructuredResume resume = new StructuredResume();
+        resume.setSkills(List.of("Java"));
+        snapshot = ResumeSnapshot.create(1L, ResumeSnapshot.Origin.LLM, resume, objectMapper,
+                ResumeEncoding.COMPACT_JSON, intentType -> 400);
+    }
+
+    @Test
+    void answersEveryFieldInOneCallWhenTheReplyIsComplete() {
+        replyWith(aliases -> aliases);
+
+        Map<String, AutofillResponse> responses = generate(fields(6));
+
+        assertAnswered(responses, 6);
+        assertThat(chatCalls).hasSize(1);
+        assertThat(singleFieldCalls).isEmpty();
+    }
+
+    @Test
+    void retriesMissingFieldsInHalvesUntilEveryFieldIsAnswered() {
+        // Every multi-field reply only answers its first field
+        replyWith(aliases -> aliases.subList(0, 1));
+
+        Map<String, AutofillResponse> responses = generate(fields(8));
+
+        assertAnswered(responses, 8);
+        // Halving bounds the calls: fewer combined calls than fields, at most one single call per field
+        assertThat(chatCalls.size()).isLessThan(8);
+        assertThat(singleFieldCalls.size()).isLessThanOrEqualTo(8);
+        assertThat(chatCalls.size() + singleFieldCalls.size()).isLessThanOrEqualTo(2 * 8);
+    }
+
+    @Test
+    void fallsBackToSingleFieldCallsWhenTheReplyIsUnusable() {
+        replyWith(aliases -> List.of());
+
+        Map<String, AutofillResponse> responses = generate(fields(5));
+
+        assertAnswered(responses, 5);
+        assertThat(singleFieldCalls).containsExactlyInAnyOrder(
+                "Question 1", "Question 2", "Question 3", "Question 4", "Question 5");
+        assertThat(chatCalls.size()).isLessThan(5);
+    }
+
+    @Test
+    void splitsFieldsRoutedToDifferentModels() {
+        routing.getIntents().put(IntentType.GITHUB_URL, "small-model");
+        routing.getIntents().put(IntentType.LINKEDIN_URL, "small-model");
+        replyWith(aliases -> aliases);
+        Map<String, AutofillRequest> fields = fields(2);
+        fields.put("github", field("GitHub profile"));
+        fields.put("linkedin", field("LinkedIn profile"));
+
+        Map<String, AutofillResponse> responses = generate(fields);
+
+        assertThat(responses).containsOnlyKeys("field1", "field2", "github", "linkedin");
+        assertThat(responses.values()).doesNotContainNull();
+        assertThat(chatCalls).hasSize(2);
+        Map<String, List<String>> labelsByModel = new LinkedHashMap<>();
+        chatCalls.forEach(call -> labelsByModel.put(call.model, call.labels));
+        assertThat(labelsByModel).containsOnlyKeys("default-model", "small-model");
+        assertThat(labelsByModel.get("small-model")).containsExactlyInAnyOrder("GitHub profile", "LinkedIn profile");
+        assertThat(labelsByModel.get("default-model")).containsExactlyInAnyOrder("Question 1", "Question 2");
+    }
+
+    /**
+     * Stubs the combined call to answer the aliases {@code answered} picks from those in the prompt.
+     */
+    private void replyWith(Function<List<String>, List<String>> answered) {
+        doAnswer(invocation -> {
+            List<OllamaRequest.Message> messages = invocation.getArgument(6);
+            String question = messages.get(messages.size() - 1).getContent();
+            List<String> aliases = new ArrayList<>();
+            Map<String, String> labels = new LinkedHashMap<>();
+            Matcher matcher = FIELD_ALIAS.matcher(question);
+            while (matcher.find()) {
+                aliases.add(matcher.group(1));
+                labels.put(matcher.group(1), matcher.group(2));
+            }
+            chatCalls.add(new ChatCall(invocation.getArgument(3), new ArrayList<>(labels.values())));
+
+            ObjectNode reply = objectMapper.createObjectNode();
+            for (String alias : answered.apply(aliases)) {
+                reply.set(alias, objectMapper.valueToTree(answer(labels.get(alias))));
+            }
+            return Mono.just(response(reply.toString()));
+        }).when(ollamaService).chat(anyString(), any(), any(), anyString(), any(), any(), any());
+    }
+
+    private Map<String, AutofillResponse> generate(Map<String, AutofillRequest> fields) {
+        return service.mapFieldsWithLlm(fields, snapshot).block(Duration.ofSeconds(5));
+    }
+
+    private static void assertAnswered(Map<String, AutofillResponse> responses, int count) {
+        assertThat(responses).hasSize(count);
+        for (int i = 1; i <= count; i++) {
+            assertThat(responses.get("field" + i).getSuggestedValue()).isEqualTo("answer to Question " + i);
+        }
+    }
+
+    private static Map<String, AutofillRequest> fields(int count) {
+        Map<String, AutofillRequest> fields = new LinkedHashMap<>();
+        for (int i = 1; i <= count; i++) {
+            fields.put("field" + i, field("Question " + i));
+        }
+        return fields;
+    }
+
+    private static AutofillRequest field(String label) {
+        AutofillRequest request = new AutofillRequest();
+        request.setFieldLabel(label);
+        request.setFieldType("text");
+        return request;
+    }
+
+    private static AutofillResponse answer(String label) {
+        return new AutofillResponse("answer to " + label, 0.9, "from the resume", "experience");
+    }
+
+    private static OllamaResponse response(String content) {
+        OllamaResponse.Message message = new OllamaResponse.Message();
+        message.setRole("assistant");
+        message.setContent(content);
+        OllamaResponse response = new OllamaResponse();
+        response.setMessage(message);
+        response.setDone(true);
+        return response;
+    }
+
+    private record ChatCall(String model, List<String> labels) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.jobautofill.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaCircuitBreakerTest {
+
+    private OllamaCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new OllamaCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openDurationMs", 50L);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure(new TimeoutException());
+        breaker.onFailure(new TimeoutException());
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.CLOSED);
+
+        breaker.onFailure(new TimeoutException());
+
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getStats()).containsEntry("times_opened", 1L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure(new TimeoutException());
+        breaker.onFailure(new TimeoutException());
+        breaker.onSuccess();
+        breaker.onFailure(new TimeoutException());
+
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void localErrorsDoNotCount() {
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure(new IllegalArgumentException("bad request"));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialSuccessClosesTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).as("only one trial call").isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void halfOpenTrialFailureReopensTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure(new TimeoutException());
+
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getStats()).containsEntry("times_opened", 2L);
+    }
+
+    @Test
+    void cancelledTrialLetsAnotherTrialThrough() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onCancel();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.HALF_OPEN);
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(new TimeoutException());
+        }
+        assertThat(breaker.getState()).isEqualTo(OllamaCircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,233 @@
+package com.jobautofill.service;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaEndpointPoolTest {
+
+    private static final String MODEL = "llama3.2";
+
+    private final OllamaEndpointPool singleEndpoint =
+            new OllamaEndpointPool(List.of("http://localhost:11434"), WebClient::create, false, 3);
+
+    private final List<StubOllama> stubs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (StubOllama stub : stubs) {
+            stub.server.shutdown();
+        }
+    }
+
+    @Test
+    void completedStreamCountsAsSuccess() {
+        singleEndpoint.callMany("model", client -> Flux.just("a", "b")).blockLast(Duration.ofSeconds(1));
+
+        assertThat(endpointStats()).containsEntry("completed_last_minute", 1).containsEntry("in_flight", 0);
+    }
+
+    @Test
+    void streamCancelledAfterDataCountsAsSuccess() {
+        singleEndpoint.callMany("model", client -> Flux.just("a", "b").concatWith(Flux.never()))
+                .take(1)
+                .blockLast(Duration.ofSeconds(1));
+
+        assertThat(endpointStats()).containsEntry("completed_last_minute", 1).containsEntry("in_flight", 0);
+        assertThat(endpointStats().get("loaded_models").toString()).contains("model");
+    }
+
+    @Test
+    void streamCancelledBeforeDataIsNoSuccess() {
+        singleEndpoint.callMany("model", client -> Flux.<String>never())
+                .take(Duration.ofMillis(20))
+                .blockLast(Duration.ofSeconds(1));
+
+        assertThat(endpointStats()).containsEntry("completed_last_minute", 0).containsEntry("in_flight", 0);
+    }
+
+    @Test
+    void callsGoToTheEndpointWithTheFewestInFlight() throws IOException {
+        StubOllama first = stub();
+        StubOllama second = stub();
+        StubOllama third = stub();
+        OllamaEndpointPool pool = pool(false, 3, first, second, third);
+
+        // Two calls that never finish hold the first two endpoints
+        Disposable busyFirst = pool.call(MODEL, client -> Mono.never()).subscribe();
+        Disposable busySecond = pool.call(MODEL, client -> Mono.never()).subscribe();
+        chat(pool);
+
+        assertThat(third.chats()).isEqualTo(1);
+        assertThat(first.chats() + second.chats()).isZero();
+        assertThat(pool.getStats().subList(0, 2))
+                .allSatisfy(stats -> assertThat(stats).containsEntry("in_flight", 1));
+        busyFirst.dispose();
+        busySecond.dispose();
+    }
+
+    @Test
+    void prefersEndpointsThatHaveTheModelLoaded() throws IOException {
+        StubOllama first = stub();
+        StubOllama second = stub();
+        second.loadedModel = MODEL;
+        OllamaEndpointPool pool = pool(true, 3, first, second);
+        pool.probe();
+
+        chat(pool);
+        chat(pool);
+        chat(pool, "other-model");
+
+        assertThat(second.chats()).isEqualTo(2);
+        assertThat(first.chats()).isEqualTo(1);
+    }
+
+    @Test
+    void ejectsAnEndpointAfterConsecutiveFailures() throws IOException {
+        StubOllama failing = stub();
+        StubOllama healthy = stub();
+        failing.loadedModel = MODEL;
+        failing.chatStatus = 500;
+        OllamaEndpointPool pool = pool(true, 2, failing, healthy);
+        pool.probe();
+
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", true);
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", false);
+
+        // The loaded model no longer pulls calls to the ejected endpoint
+        chat(pool);
+        assertThat(failing.chats()).isEqualTo(2);
+        assertThat(healthy.chats()).isEqualTo(1);
+    }
+
+    @Test
+    void probeReadmitsOnProbationUntilACallSucceeds() throws IOException {
+        StubOllama flaky = stub();
+        StubOllama healthy = stub();
+        flaky.loadedModel = MODEL;
+        flaky.chatStatus = 500;
+        OllamaEndpointPool pool = pool(true, 2, flaky, healthy);
+        pool.probe();
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+
+        // /api/ps answers while /api/chat still fails: one more failure ejects it again
+        pool.probe();
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", true);
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", false);
+
+        // Once a real call succeeds it gets the full failure allowance back
+        flaky.chatStatus = 200;
+        pool.probe();
+        chat(pool);
+        flaky.chatStatus = 500;
+        assertThatThrownBy(() -> chat(pool)).isInstanceOf(WebClientResponseException.class);
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", true);
+        assertThat(flaky.chats()).isEqualTo(5);
+    }
+
+    @Test
+    void failedProbeEjectsTheEndpoint() throws IOException {
+        StubOllama down = stub();
+        StubOllama healthy = stub();
+        down.server.shutdown();
+        OllamaEndpointPool pool = pool(false, 3, down, healthy);
+
+        pool.probe();
+        chat(pool);
+
+        assertThat(pool.getStats().get(0)).containsEntry("healthy", false);
+        assertThat(healthy.chats()).isEqualTo(1);
+    }
+
+    private Map<String, Object> endpointStats() {
+        return singleEndpoint.getStats().get(0);
+    }
+
+    private StubOllama stub() throws IOException {
+        StubOllama stub = new StubOllama();
+        stub.server.start();
+        stubs.add(stub);
+        return stub;
+    }
+
+    private static OllamaEndpointPool pool(boolean preferLoadedModel, int ejectAfterFailures, StubOllama... stubs) {
+        List<String> baseUrls = new ArrayList<>();
+        for (StubOllama stub : stubs) {
+            baseUrls.add("http://" + stub.server.getHostName() + ":" + stub.server.getPort());
+        }
+        return new OllamaEndpointPool(baseUrls, WebClient::create, preferLoadedModel, ejectAfterFailures);
+    }
+
+    private static void chat(OllamaEndpointPool pool) {
+        chat(pool, MODEL);
+    }
+
+    private static void chat(OllamaEndpointPool pool, String model) {
+        pool.call(model, client -> client.post()
+                        .uri("/api/chat")
+                        .bodyValue(Map.of("model", model))
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Ollama stub answering {@code /api/ps} with its loaded model and {@code /api/chat}
+     * with {@code chatStatus}.
+     */
+    private static final class StubOllama {
+        private final MockWebServer server = new MockWebServer();
+        private volatile String loadedModel;
+        private volatile int chatStatus = 200;
+        private int chats;
+
+        private StubOllama() {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    if ("/api/ps".equals(request.getPath())) {
+                        String models = loadedModel != null ? "{\"name\": \"" + loadedModel + "\"}" : "";
+                        return json(200, "{\"models\": [" + models + "]}");
+                    }
+                    if ("/api/chat".equals(request.getPath())) {
+                        synchronized (StubOllama.this) {
+                            chats++;
+                        }
+                        return json(chatStatus, "{\"done\": true}");
+                    }
+                    return new MockResponse().setResponseCode(404);
+                }
+            });
+        }
+
+        synchronized int chats() {
+            return chats;
+        }
+
+        private static MockResponse json(int status, String body) {
+            return new MockResponse().setResponseCode(status).setHeader("Content-Type", "application/json")
+                    .setBody(body);
+        }
+    }
+}
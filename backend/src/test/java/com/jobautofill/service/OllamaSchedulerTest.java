@@ -0,0 +1,153 @@
+package com.jobautofill.service;
+
+import com.jobautofill.service.OllamaScheduler.BusyException;
+import com.jobautofill.service.OllamaScheduler.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaSchedulerTest {
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    @Test
+    void reserveSlotKeepsBatchCallsFromStarvingInteractiveCalls() {
+        OllamaScheduler scheduler = scheduler(2, 1, 0L);
+        List<Sinks.One<String>> batchCalls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Sinks.One<String> call = Sinks.one();
+            batchCalls.add(call);
+            scheduler.schedule(Priority.BATCH, () -> started(call)).subscribe();
+        }
+        assertThat(started).hasValue(1);
+
+        String answer = scheduler.schedule(Priority.INTERACTIVE, () -> Mono.just("field"))
+                .block(Duration.ofSeconds(1));
+
+        assertThat(answer).isEqualTo("field");
+        assertThat(classStats(scheduler, Priority.BATCH)).containsEntry("queued", 2);
+    }
+
+    @Test
+    void batchCallsUseTheReserveWhenNothingElseRuns() {
+        OllamaScheduler scheduler = scheduler(1, 1, 0L);
+
+        String answer = scheduler.schedule(Priority.BATCH, () -> Mono.just("batch")).block(Duration.ofSeconds(1));
+
+        assertThat(answer).isEqualTo("batch");
+    }
+
+    @Test
+    void completedCallsReleaseTheirSlot() {
+        OllamaScheduler scheduler = scheduler(1, 0, 0L);
+        Sinks.One<String> first = Sinks.one();
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(first)).subscribe();
+        Sinks.One<String> second = Sinks.one();
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(second)).subscribe();
+        assertThat(started).hasValue(1);
+
+        first.tryEmitValue("done");
+
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void shedsCallsOnceTheQueueIsFull() {
+        OllamaScheduler scheduler = configure(1, 0, 0L);
+        ReflectionTestUtils.setField(scheduler, "backgroundMaxQueue", 1);
+        scheduler.init();
+        scheduler.schedule(Priority.BACKGROUND, () -> started(Sinks.one())).subscribe();
+        scheduler.schedule(Priority.BACKGROUND, () -> started(Sinks.one())).subscribe();
+
+        assertThatThrownBy(() -> scheduler.schedule(Priority.BACKGROUND, () -> Mono.just("late"))
+                .block(Duration.ofSeconds(1)))
+                .isInstanceOf(BusyException.class)
+                .hasMessageContaining("background queue full");
+        assertThat(classStats(scheduler, Priority.BACKGROUND)).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void shedsCallsThatWaitLongerThanMaxWait() {
+        OllamaScheduler scheduler = scheduler(1, 0, 100L);
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(Sinks.one())).subscribe();
+
+        assertThatThrownBy(() -> scheduler.schedule(Priority.INTERACTIVE, () -> Mono.just("late"))
+                .block(Duration.ofSeconds(2)))
+                .isInstanceOf(BusyException.class)
+                .hasMessageContaining("no slot within 100 ms")
+                .hasMessageNotContaining("queue full");
+        assertThat(classStats(scheduler, Priority.INTERACTIVE))
+                .containsEntry("timed_out", 1L)
+                .containsEntry("queued", 0);
+    }
+
+    @Test
+    void cancelledCallsLeaveTheQueue() {
+        OllamaScheduler scheduler = scheduler(1, 0, 0L);
+        Sinks.One<String> first = Sinks.one();
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(first)).subscribe();
+        Disposable waiting = scheduler.schedule(Priority.INTERACTIVE, () -> started(Sinks.one())).subscribe();
+
+        waiting.dispose();
+        first.tryEmitValue("done");
+
+        assertThat(started).hasValue(1);
+        assertThat(classStats(scheduler, Priority.INTERACTIVE)).containsEntry("queued", 0).containsEntry("running", 0);
+    }
+
+    @Test
+    void raisingTheGlobalLimitStartsQueuedCalls() {
+        OllamaScheduler scheduler = scheduler(1, 0, 0L);
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(Sinks.one())).subscribe();
+        scheduler.schedule(Priority.INTERACTIVE, () -> started(Sinks.one())).subscribe();
+        assertThat(scheduler.isSaturated()).isTrue();
+
+        scheduler.setGlobalLimit(2);
+
+        assertThat(started).hasValue(2);
+    }
+
+    private Mono<String> started(Sinks.One<String> call) {
+        started.incrementAndGet();
+        return call.asMono();
+    }
+
+    private static OllamaScheduler scheduler(int globalLimit, int interactiveReserve, long interactiveMaxWait) {
+        OllamaScheduler scheduler = configure(globalLimit, interactiveReserve, interactiveMaxWait);
+        scheduler.init();
+        return scheduler;
+    }
+
+    private static OllamaScheduler configure(int globalLimit, int interactiveReserve, long interactiveMaxWait) {
+        OllamaScheduler scheduler = new OllamaScheduler();
+        ReflectionTestUtils.setField(scheduler, "globalLimit", globalLimit);
+        ReflectionTestUtils.setField(scheduler, "interactiveReserve", interactiveReserve);
+        ReflectionTestUtils.setField(scheduler, "interactiveMaxConcurrent", 8);
+        ReflectionTestUtils.setField(scheduler, "interactiveMaxQueue", 50);
+        ReflectionTestUtils.setField(scheduler, "interactiveMaxWait", interactiveMaxWait);
+        ReflectionTestUtils.setField(scheduler, "batchMaxConcurrent", 8);
+        ReflectionTestUtils.setField(scheduler, "batchMaxQueue", 100);
+        ReflectionTestUtils.setField(scheduler, "batchMaxWait", 0L);
+        ReflectionTestUtils.setField(scheduler, "backgroundMaxConcurrent", 1);
+        ReflectionTestUtils.setField(scheduler, "backgroundMaxQueue", 4);
+        ReflectionTestUtils.setField(scheduler, "backgroundMaxWait", 0L);
+        return scheduler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> classStats(OllamaScheduler scheduler, Priority priority) {
+        return (Map<String, Object>) scheduler.getStats().get(priority.name().toLowerCase(Locale.ROOT));
+    }
+}
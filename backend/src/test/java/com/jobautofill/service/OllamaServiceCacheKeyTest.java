@@ -0,0 +1,106 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.ModelRoutingProperties;
+import com.jobautofill.model.AutofillRequest;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.ResumeEncoding;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaServiceCacheKeyTest {
+
+    private static final int CONTEXT_BUDGET = 64;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void editPastTheBudgetedSliceMissesTheCache() {
+        OllamaService service = service("inline");
+        ResumeSnapshot before = snapshot(resume("Led the billing rewrite"));
+        ResumeSnapshot after = snapshot(resume("Led the payments rewrite"));
+        // The edited entry is cut from the focused context, so the prompt slice is the same
+        assertThat(after.getFocusedContext(IntentType.EXPERIENCE_SUMMARY))
+                .isEqualTo(before.getFocusedContext(IntentType.EXPERIENCE_SUMMARY));
+
+        AutofillRequest experience = field("Describe your work experience");
+        assertThat(service.cacheKey(experience, after)).isNotEqualTo(service.cacheKey(experience, before));
+        // Answers drawn only from other sections stay cached
+        AutofillRequest github = field("GitHub profile");
+        assertThat(service.cacheKey(github, after)).isEqualTo(service.cacheKey(github, before));
+    }
+
+    @Test
+    void resumePrefixLayoutKeysOnTheWholeResume() {
+        OllamaService service = service("resume-prefix");
+        ResumeSnapshot before = snapshot(resume("Led the billing rewrite"));
+        ResumeSnapshot after = snapshot(resume("Led the payments rewrite"));
+
+        // The system message holds the whole resume, so any edit changes every prompt
+        AutofillRequest github = field("GitHub profile");
+        assertThat(service.cacheKey(github, after)).isNotEqualTo(service.cacheKey(github, before));
+        assertThat(service.cacheKey(github, before)).isEqualTo(service.cacheKey(github, snapshot(
+                resume("Led the billing rewrite"))));
+    }
+
+    @Test
+    void promptLayoutAndEncodingArePartOfTheKey() {
+        StructuredResume resume = resume("Led the billing rewrite");
+        AutofillRequest github = field("GitHub profile");
+        String key = service("inline").cacheKey(github, snapshot(resume));
+
+        // Same resume and field, but the prompt the answer came from differs
+        assertThat(service("resume-prefix").cacheKey(github, snapshot(resume))).isNotEqualTo(key);
+        assertThat(service("inline").cacheKey(github, ResumeSnapshot.create(1L, ResumeSnapshot.Origin.LLM, resume,
+                objectMapper, ResumeEncoding.LINES, intentType -> CONTEXT_BUDGET))).isNotEqualTo(key);
+        assertThat(service("inline").cacheKey(github, snapshot(resume))).isEqualTo(key);
+    }
+
+    private OllamaService service(String layout) {
+        OllamaService service = new OllamaService(null, objectMapper, null, null, null, null, null, null, null,
+                new ModelRoutingProperties(), null);
+        ReflectionTestUtils.setField(service, "model", "llama3.2");
+        ReflectionTestUtils.setField(service, "promptLayout", layout);
+        return service;
+    }
+
+    private ResumeSnapshot snapshot(StructuredResume resume) {
+        return ResumeSnapshot.create(1L, ResumeSnapshot.Origin.LLM, resume, objectMapper,
+                ResumeEncoding.COMPACT_JSON, intentType -> CONTEXT_BUDGET);
+    }
+
+    private static StructuredResume resume(String lastDescription) {
+        StructuredResume.PersonalInfo personalInfo = new StructuredResume.PersonalInfo();
+        personalInfo.setName("Jane Doe");
+        personalInfo.setGithub("https://github.com/janedoe");
+
+        List<StructuredResume.Experience> experience = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            StructuredResume.Experience job = new StructuredResume.Experience();
+            job.setTitle("Engineer " + i);
+            job.setCompany("Company " + i);
+            job.setDescription(i == 5 ? lastDescription : "Built and operated backend services for team " + i);
+            experience.add(job);
+        }
+
+        StructuredResume resume = new StructuredResume();
+        resume.setPersonalInfo(personalInfo);
+        resume.setExperience(experience);
+        resume.setSkills(List.of("Java", "SQL"));
+        return resume;
+    }
+
+    private static AutofillRequest field(String label) {
+        AutofillRequest request = new AutofillRequest();
+        request.setFieldLabel(label);
+        request.setFieldType("text");
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.jobautofill.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaServiceHedgingTest {
+
+    private final AtomicInteger hedgesSent = new AtomicInteger();
+
+    @Test
+    void fastPrimaryNeverSendsTheHedge() throws InterruptedException {
+        String answer = OllamaService.hedged(Mono.just("primary"), Duration.ofMillis(50), hedge(Mono.just("hedge")))
+                .block(Duration.ofSeconds(1));
+        Thread.sleep(100);
+
+        assertThat(answer).isEqualTo("primary");
+        assertThat(hedgesSent).hasValue(0);
+    }
+
+    @Test
+    void slowPrimaryIsRacedByTheHedge() {
+        Mono<String> primary = Mono.delay(Duration.ofSeconds(5)).thenReturn("primary");
+
+        String answer = OllamaService.hedged(primary, Duration.ofMillis(50), hedge(Mono.just("hedge")))
+                .block(Duration.ofSeconds(1));
+
+        assertThat(answer).isEqualTo("hedge");
+        assertThat(hedgesSent).hasValue(1);
+    }
+
+    @Test
+    void primaryFailingBeforeTheDelaySkipsTheHedge() throws InterruptedException {
+        Mono<String> primary = Mono.delay(Duration.ofMillis(10))
+                .then(Mono.error(new IllegalStateException("connection refused")));
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> OllamaService.hedged(primary, Duration.ofMillis(500), hedge(Mono.just("hedge")))
+                .block(Duration.ofSeconds(2)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("connection refused");
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000L;
+        Thread.sleep(600);
+
+        assertThat(elapsedMs).isLessThan(400);
+        assertThat(hedgesSent).hasValue(0);
+    }
+
+    @Test
+    void hedgeStillAnswersWhenThePrimaryFailsAfterIt() {
+        Mono<String> primary = Mono.delay(Duration.ofMillis(100))
+                .then(Mono.error(new IllegalStateException("primary failed")));
+        Mono<String> hedge = Mono.delay(Duration.ofMillis(200)).thenReturn("hedge");
+
+        String answer = OllamaService.hedged(primary, Duration.ofMillis(50), hedge(hedge))
+                .block(Duration.ofSeconds(1));
+
+        assertThat(answer).isEqualTo("hedge");
+    }
+
+    @Test
+    void reportsThePrimaryErrorWhenBothFail() {
+        Mono<String> primary = Mono.delay(Duration.ofMillis(100))
+                .then(Mono.error(new IllegalStateException("primary failed")));
+        Mono<String> hedge = Mono.error(new IllegalArgumentException("hedge failed"));
+
+        assertThatThrownBy(() -> OllamaService.hedged(primary, Duration.ofMillis(50), hedge(hedge))
+                .block(Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("primary failed");
+    }
+
+    private Mono<String> hedge(Mono<String> call) {
+        return Mono.defer(() -> {
+            hedgesSent.incrementAndGet();
+            return call;
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.jobautofill.service;
+
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaTimeoutPolicyTest {
+
+    private static final IntentType INTENT = IntentType.values()[0];
+
+    private OllamaTimeoutPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new OllamaTimeoutPolicy();
+        ReflectionTestUtils.setField(policy, "staticTimeout", 60_000L);
+        ReflectionTestUtils.setField(policy, "adaptive", true);
+        ReflectionTestUtils.setField(policy, "minTimeout", 5_000L);
+        ReflectionTestUtils.setField(policy, "p99Multiplier", 3.0);
+        ReflectionTestUtils.setField(policy, "minSamples", 20);
+        ReflectionTestUtils.setField(policy, "hedgingEnabled", true);
+    }
+
+    @Test
+    void usesTheStaticTimeoutUntilEnoughSamples() {
+        record(19, 4_000L);
+
+        assertThat(policy.timeoutFor(INTENT)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(policy.hedgeDelayFor(INTENT)).isEmpty();
+        assertThat(policy.timeoutFor(null)).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void derivesTheTimeoutFromP99() {
+        record(20, 4_000L);
+
+        assertThat(policy.timeoutFor(INTENT)).isEqualTo(Duration.ofSeconds(12));
+    }
+
+    @Test
+    void keepsTheDerivedTimeoutWithinBounds() {
+        record(20, 100L);
+        assertThat(policy.timeoutFor(INTENT)).isEqualTo(Duration.ofSeconds(5));
+
+        record(100, 50_000L);
+        assertThat(policy.timeoutFor(INTENT)).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void staticTimeoutWhenNotAdaptive() {
+        ReflectionTestUtils.setField(policy, "adaptive", false);
+        record(20, 4_000L);
+
+        assertThat(policy.timeoutFor(INTENT)).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void hedgesAtP95OnlyWhenEnabled() {
+        record(20, 2_000L);
+        assertThat(policy.hedgeDelayFor(INTENT)).contains(Duration.ofSeconds(2));
+
+        ReflectionTestUtils.setField(policy, "hedgingEnabled", false);
+        assertThat(policy.hedgeDelayFor(INTENT)).isEmpty();
+    }
+
+    private void record(int samples, long millis) {
+        for (int i = 0; i < samples; i++) {
+            policy.record(INTENT, millis);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.PromptBudgetProperties;
+import com.jobautofill.model.AutofillRequest;
+import com.jobautofill.model.ResumeData;
+import com.jobautofill.model.ResumeSnapshot;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.service.OllamaScheduler.Priority;
+import com.jobautofill.storage.ResumeStorage;
+import com.jobautofill.util.FieldIntentClassifier.IntentType;
+import com.jobautofill.util.LatencyWindow;
+import com.jobautofill.util.ResumeEncoding;
+import com.jobautofill.util.ResumePromptRenderer;
+import com.jobautofill.util.TokenEstimator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Answers the same fields from the same resumes in every {@link ResumeEncoding} against a
+ * running Ollama, one call at a time, and reports what Ollama measured per encoding:
+ * prompt tokens, {@code prompt_eval_duration} and {@code total_duration}, next to the
+ * wall-clock latency and the chars/4 estimates of the full resume and the focused
+ * contexts. Run it with
+ * {@code mvn test -Dtest=PromptEncodingBenchmark -Dbenchmark.resumes=<JSON array of extracted resumes>}
+ * and optionally {@code -Dbenchmark.ollama-url=http://host:11434}. Results are printed
+ * and written to {@code target/benchmarks/prompt-encodings.json}.
+ */
+@SpringBootTest(properties = {
+        "ollama.preload=false",
+        "autofill.cache.enabled=false",
+        "autofill.extraction.cache.enabled=false"
+})
+@EnabledIfSystemProperty(named = "benchmark.resumes", matches = ".+")
+class PromptEncodingBenchmark {
+
+    private static final Duration CALL_TIMEOUT = Duration.ofMinutes(2);
+
+    // Open questions, so every field goes to the model
+    private static final List<AutofillRequest> FIELDS = List.of(
+            field("Why do you want to work here?", "textarea"),
+            field("Describe your most relevant work experience", "textarea"),
+            field("What are your strongest technical skills?", "text"),
+            field("Summarize your education", "text"),
+            field("What is your current job title?", "text"));
+
+    @Autowired
+    private OllamaService ollamaService;
+
+    @Autowired
+    private ResumeStorage resumeStorage;
+
+    @Autowired
+    private PromptBudgetProperties promptBudget;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void ollamaProperties(DynamicPropertyRegistry registry) {
+        registry.add("ollama.base-url", () -> System.getProperty("benchmark.ollama-url", "http://localhost:11434"));
+    }
+
+    @Test
+    void compareEncodings() throws IOException {
+        List<StructuredResume> samples = objectMapper.readValue(new File(System.getProperty("benchmark.resumes")),
+                new TypeReference<>() { });
+        assertThat(samples).isNotEmpty();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (ResumeEncoding encoding : ResumeEncoding.values()) {
+            ReflectionTestUtils.setField(resumeStorage, "resumeEncoding", encoding.displayName());
+            Map<String, Long> before = evalTotals();
+            LatencyWindow wall = new LatencyWindow(samples.size() * FIELDS.size());
+            long estimatedTokens = 0;
+            long estimatedFocusedTokens = 0;
+            long failures = 0;
+
+            for (StructuredResume sample : samples) {
+                estimatedTokens += TokenEstimator.estimate(
+                        ResumePromptRenderer.renderFullResume(sample, objectMapper, encoding));
+                estimatedFocusedTokens += estimatedFocusedTokens(sample, encoding);
+
+                ResumeData resumeData = new ResumeData("sample.pdf", "");
+                resumeStorage.store(resumeData);
+                resumeStorage.storeExtraction(resumeData, sample);
+                ResumeSnapshot snapshot = resumeStorage.getSnapshot();
+                for (AutofillRequest field : FIELDS) {
+                    long started = System.nanoTime();
+                    String matched = ollamaService.generateField(field, snapshot, Priority.INTERACTIVE)
+                            .block(CALL_TIMEOUT).getFieldMatched();
+                    wall.record((System.nanoTime() - started) / 1_000_000L);
+                    if ("llm_error".equals(matched)) {
+                        failures++;
+                    }
+                }
+            }
+
+            Map<String, Long> after = evalTotals();
+            long calls = Math.max(1L, after.get("calls") - before.get("calls"));
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("calls", after.get("calls") - before.get("calls"));
+            entry.put("failures", failures);
+            entry.put("avg_estimated_resume_tokens", estimatedTokens / samples.size());
+            entry.put("avg_estimated_focused_context_tokens", estimatedFocusedTokens / samples.size());
+            entry.put("avg_prompt_eval_count",
+                    (after.get("total_prompt_eval_count") - before.get("total_prompt_eval_count")) / calls);
+            entry.put("avg_prompt_eval_ms",
+                    (after.get("total_prompt_eval_ms") - before.get("total_prompt_eval_ms")) / calls);
+            entry.put("avg_total_ms", (after.get("total_ms") - before.get("total_ms")) / calls);
+            entry.put("avg_wall_ms", wall.average());
+            entry.put("p95_wall_ms", wall.percentile(95));
+            System.out.println(encoding.displayName() + ": " + entry);
+            report.put(encoding.displayName(), entry);
+        }
+
+        Path out = Paths.get("target", "benchmarks", "prompt-encodings.json");
+        Files.createDirectories(out.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+    }
+
+    // chars/4 estimate of the focused contexts, averaged over the intents
+    private long estimatedFocusedTokens(StructuredResume resume, ResumeEncoding encoding) {
+        long tokens = 0;
+        for (IntentType intentType : IntentType.values()) {
+            tokens += TokenEstimator.estimate(ResumePromptRenderer.renderFocusedContext(intentType, resume,
+                    objectMapper, encoding, promptBudget.tokensFor(intentType)));
+        }
+        return tokens / IntentType.values().length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> evalTotals() {
+        Map<String, Object> promptEval = (Map<String, Object>) ollamaService.getStats().get("prompt_eval");
+        Map<String, Object> autofill = (Map<String, Object>) promptEval.getOrDefault("autofill", Map.of());
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (String key : List.of("calls", "total_prompt_eval_count", "total_prompt_eval_ms", "total_ms")) {
+            totals.put(key, ((Number) autofill.getOrDefault(key, 0L)).longValue());
+        }
+        return totals;
+    }
+
+    private static AutofillRequest field(String label, String type) {
+        AutofillRequest request = new AutofillRequest();
+        request.setFieldLabel(label);
+        request.setFieldType(type);
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jobautofill.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.config.GenerationProperties;
+import com.jobautofill.config.ModelRoutingProperties;
+import com.jobautofill.model.OllamaResponse;
+import com.jobautofill.model.StructuredResume;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class ResumeExtractionServiceTest {
+
+    private static final String TWO_EMAILS = """
+            Jane Doe
+            jane@old.example.com, jane.doe@example.com
+            +1 555 123 4567
+            Experience
+            Backend Engineer, Acme
+            References
+            Bob Smith, bob@acme.example.com
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OllamaService ollamaService;
+    private ResumeExtractionService extractionService;
+
+    @BeforeEach
+    void setUp() {
+        OllamaService real = new OllamaService(null, objectMapper, null, null, null, null, null, null, null,
+                new ModelRoutingProperties(), new GenerationProperties());
+        ReflectionTestUtils.setField(real, "model", "llama3.2");
+        ollamaService = spy(real);
+        extractionService = new ResumeExtractionService(ollamaService, objectMapper, new GenerationProperties());
+        ReflectionTestUtils.setField(extractionService, "extractionMode", "single");
+        ReflectionTestUtils.setField(extractionService, "preExtract", true);
+    }
+
+    @Test
+    void keepsTheLlmEmailWhenTheContactBlockListsSeveral() {
+        replyWith("""
+                {"personal_info": {"name": "Jane Doe", "email": "jane.doe@example.com", "phone": "+1 555 123 4567"},
+                 "education": [], "experience": [{"title": "Backend Engineer", "company": "Acme"}]}
+                """);
+
+        StructuredResume resume = extract(TWO_EMAILS);
+
+        assertThat(resume.getPersonalInfo().getEmail()).isEqualTo("jane.doe@example.com");
+        assertThat(resume.getPersonalInfo().getPhone()).isEqualTo("+1 555 123 4567");
+        assertThat(preExtractionStats()).containsEntry("conflicts", 0L);
+    }
+
+    @Test
+    void fillsPersonalInfoWhenTheLlmReturnsNull() {
+        replyWith("""
+                {"personal_info": null, "education": [], "experience": []}
+                """);
+
+        StructuredResume resume = extract(TWO_EMAILS);
+
+        assertThat(resume.getPersonalInfo().getName()).isEqualTo("Jane Doe");
+        assertThat(resume.getPersonalInfo().getPhone()).isEqualTo("+1 555 123 4567");
+        // Two candidates and no answer from the LLM: better none than the wrong one
+        assertThat(resume.getPersonalInfo().getEmail()).isNull();
+    }
+
+    private void replyWith(String content) {
+        OllamaResponse.Message message = new OllamaResponse.Message();
+        message.setRole("assistant");
+        message.setContent(content);
+        OllamaResponse response = new OllamaResponse();
+        response.setMessage(message);
+        response.setDone(true);
+        doReturn(Mono.just(response)).when(ollamaService)
+                .chat(anyString(), any(), any(), any(), any(), any(), any());
+    }
+
+    private StructuredResume extract(String resumeText) {
+        return extractionService.extractStructuredResume(resumeText).block(Duration.ofSeconds(5));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> preExtractionStats() {
+        return (Map<String, Object>) extractionService.getStats().get("pre_extraction");
+    }
+}
@@ -0,0 +1,149 @@
+package com.jobautofill.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.model.AutofillResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutofillAnswerCacheTest {
+
+    @TempDir
+    Path diskDir;
+
+    @Test
+    void returnsCopiesOfCachedAnswers() {
+        AutofillAnswerCache cache = cache(10, 60_000L, false);
+        cache.put(key("a"), answer("Jane"));
+
+        AutofillResponse cached = cache.get(key("a"));
+        cached.setSuggestedValue("changed");
+
+        assertThat(cache.get(key("a")).getSuggestedValue()).isEqualTo("Jane");
+        assertThat(cache.getStats()).containsEntry("memory_hits", 2L);
+    }
+
+    @Test
+    void expiresEntriesAfterTheTtl() throws InterruptedException {
+        AutofillAnswerCache cache = cache(10, 50L, false);
+        cache.put(key("a"), answer("Jane"));
+        assertThat(cache.get(key("a"))).isNotNull();
+
+        Thread.sleep(80);
+
+        assertThat(cache.get(key("a"))).isNull();
+        assertThat(cache.getStats()).containsEntry("size", 0).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        AutofillAnswerCache cache = cache(2, 60_000L, false);
+        cache.put(key("a"), answer("A"));
+        cache.put(key("b"), answer("B"));
+        cache.get(key("a"));
+
+        cache.put(key("c"), answer("C"));
+
+        assertThat(cache.get(key("b"))).isNull();
+        assertThat(cache.get(key("a"))).isNotNull();
+        assertThat(cache.get(key("c"))).isNotNull();
+        assertThat(cache.getStats()).containsEntry("size", 2).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void servesAnswersFromDiskAfterARestart() throws Exception {
+        AutofillAnswerCache cache = cache(10, 60_000L, true);
+        cache.put(key("a"), answer("Jane"));
+        awaitFiles(1);
+
+        AutofillAnswerCache restarted = cache(10, 60_000L, true);
+
+        assertThat(restarted.get(key("a")).getSuggestedValue()).isEqualTo("Jane");
+        assertThat(restarted.getStats()).containsEntry("disk_hits", 1L);
+    }
+
+    @Test
+    void invalidateAllIgnoresDiskEntriesAndDeletesThemInTheBackground() throws Exception {
+        AutofillAnswerCache cache = cache(10, 60_000L, true);
+        cache.put(key("a"), answer("Jane"));
+        awaitFiles(1);
+
+        cache.invalidateAll();
+
+        assertThat(cache.get(key("a"))).isNull();
+        awaitFiles(0);
+    }
+
+    @Test
+    void invalidateContextsDropsOnlyThoseContexts() throws Exception {
+        AutofillAnswerCache cache = cache(10, 60_000L, true);
+        cache.put(AutofillAnswerCache.key("model", "config", "stale", "field"), answer("old"));
+        cache.put(AutofillAnswerCache.key("model", "config", "current", "field"), answer("new"));
+        awaitFiles(2);
+
+        int removed = cache.invalidateContexts(List.of("stale"));
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(cache.get(AutofillAnswerCache.key("model", "config", "stale", "field"))).isNull();
+        assertThat(cache.get(AutofillAnswerCache.key("model", "config", "current", "field"))).isNotNull();
+        awaitFiles(1);
+
+        AutofillAnswerCache restarted = cache(10, 60_000L, true);
+        assertThat(restarted.get(AutofillAnswerCache.key("model", "config", "stale", "field"))).isNull();
+        assertThat(restarted.get(AutofillAnswerCache.key("model", "config", "current", "field"))).isNotNull();
+    }
+
+    @Test
+    void answersStoredAfterInvalidationAreKept() throws Exception {
+        AutofillAnswerCache cache = cache(10, 60_000L, true);
+        cache.invalidateAll();
+        Thread.sleep(5);
+        cache.put(key("a"), answer("Jane"));
+        awaitFiles(1);
+
+        AutofillAnswerCache restarted = cache(10, 60_000L, true);
+
+        assertThat(restarted.get(key("a"))).isNotNull();
+    }
+
+    private AutofillAnswerCache cache(int maxEntries, long ttlMillis, boolean disk) {
+        AutofillAnswerCache cache = new AutofillAnswerCache(new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "ttlMillis", ttlMillis);
+        ReflectionTestUtils.setField(cache, "diskEnabled", disk);
+        ReflectionTestUtils.setField(cache, "diskDir", diskDir.toString());
+        cache.init();
+        return cache;
+    }
+
+    // Disk writes and deletes run in the background
+    private void awaitFiles(long expected) throws IOException, InterruptedException {
+        for (int i = 0; i < 200 && countFiles() != expected; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(countFiles()).isEqualTo(expected);
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(diskDir)) {
+            return files.filter(path -> path.toString().endsWith(".json")).count();
+        }
+    }
+
+    private static String key(String field) {
+        return AutofillAnswerCache.key("model", "config", "context", field);
+    }
+
+    private static AutofillResponse answer(String value) {
+        return new AutofillResponse(value, 0.9, "test", "personal_info.name");
+    }
+}
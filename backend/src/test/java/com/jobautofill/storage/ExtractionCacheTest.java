@@ -0,0 +1,152 @@
+package com.jobautofill.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobautofill.model.StructuredResume;
+import com.jobautofill.util.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractionCacheTest {
+
+    private static final String TEXT = "x".repeat(100);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsPdfText() throws Exception {
+        ExtractionCache cache = cache(1_000_000L, true);
+        byte[] pdf = pdf("a");
+        assertThat(cache.getText(pdf)).isNull();
+
+        cache.putText(pdf, "Jane Doe");
+        awaitEntries(1);
+
+        assertThat(cache.getText(pdf)).isEqualTo("Jane Doe");
+        assertThat(cache.getText(pdf("b"))).isNull();
+        assertThat(cache.getStats()).containsEntry("text_hits", 1L).containsEntry("text_misses", 2L);
+    }
+
+    @Test
+    void roundTripsStructuredResumesIgnoringWhitespace() throws Exception {
+        ExtractionCache cache = cache(1_000_000L, true);
+        StructuredResume resume = new StructuredResume();
+        resume.setSkills(List.of("Java", "SQL"));
+
+        cache.putResume(ExtractionCache.resumeKey("Jane  Doe\nJava", "model|single|3"), resume);
+        awaitEntries(1);
+
+        StructuredResume cached = cache.getResume(ExtractionCache.resumeKey(" Jane Doe Java ", "model|single|3"));
+        assertThat(cached.getSkills()).containsExactly("Java", "SQL");
+        assertThat(cache.getResume(ExtractionCache.resumeKey("Jane Doe Java", "model|sectioned|3"))).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntries() throws Exception {
+        ExtractionCache cache = cache(250L, true);
+        cache.putText(pdf("a"), TEXT);
+        cache.putText(pdf("b"), TEXT);
+        awaitEntries(2);
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(textPath("a"), FileTime.fromMillis(now - 20_000));
+        Files.setLastModifiedTime(textPath("b"), FileTime.fromMillis(now - 10_000));
+        // Reading a makes it the most recently used
+        assertThat(cache.getText(pdf("a"))).isEqualTo(TEXT);
+
+        cache.putText(pdf("c"), TEXT);
+        // c is written before the eviction it triggers, which counts after deleting
+        for (int i = 0; i < 200 && !cache.getStats().get("evictions").equals(1L); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(Files.exists(textPath("a"))).isTrue();
+        assertThat(Files.exists(textPath("b"))).isFalse();
+        assertThat(Files.exists(textPath("c"))).isTrue();
+        assertThat(cache.getStats()).containsEntry("evictions", 1L).containsEntry("size_bytes", 200L);
+    }
+
+    @Test
+    void writesThenRenamesWithoutLeavingTempFiles() throws Exception {
+        ExtractionCache cache = cache(1_000_000L, true);
+        cache.putText(pdf("a"), "first");
+        awaitEntries(1);
+
+        cache.putText(pdf("a"), "second version");
+        for (int i = 0; i < 200 && !"second version".equals(cache.getText(pdf("a"))); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(cache.getText(pdf("a"))).isEqualTo("second version");
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactly(ContentHash.sha256(pdf("a")) + ".txt");
+        }
+        assertThat(cache.getStats()).containsEntry("size_bytes", (long) "second version".length());
+    }
+
+    @Test
+    void countsExistingEntriesOnStartup() throws Exception {
+        ExtractionCache cache = cache(1_000_000L, true);
+        cache.putText(pdf("a"), TEXT);
+        cache.putText(pdf("b"), TEXT);
+        awaitEntries(2);
+
+        ExtractionCache restarted = cache(1_000_000L, true);
+
+        assertThat(restarted.getStats()).containsEntry("size_bytes", 200L);
+        assertThat(restarted.getText(pdf("b"))).isEqualTo(TEXT);
+    }
+
+    @Test
+    void disabledCacheStoresNothing() throws Exception {
+        ExtractionCache cache = cache(1_000_000L, false);
+        cache.putText(pdf("a"), TEXT);
+        Thread.sleep(50);
+
+        assertThat(cache.getText(pdf("a"))).isNull();
+        assertThat(countEntries()).isZero();
+    }
+
+    private ExtractionCache cache(long maxBytes, boolean enabled) {
+        ExtractionCache cache = new ExtractionCache(new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "dir", dir.toString());
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        cache.init();
+        return cache;
+    }
+
+    // Writes and evictions run in the background
+    private void awaitEntries(long expected) throws IOException, InterruptedException {
+        for (int i = 0; i < 200 && countEntries() != expected; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(20);
+        assertThat(countEntries()).isEqualTo(expected);
+    }
+
+    private long countEntries() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> !path.toString().endsWith(".tmp")).count();
+        }
+    }
+
+    private Path textPath(String name) {
+        return dir.resolve(ContentHash.sha256(pdf(name)) + ".txt");
+    }
+
+    private static byte[] pdf(String name) {
+        return ("%PDF " + name).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jobautofill.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyWindowTest {
+
+    @Test
+    void averagesOnlyTheSamplesInTheWindow() {
+        LatencyWindow window = new LatencyWindow(4);
+        for (int i = 0; i < 100; i++) {
+            window.record(1_000L);
+        }
+        for (int i = 0; i < 4; i++) {
+            window.record(10L);
+        }
+
+        assertThat(window.average()).isEqualTo(10L);
+        assertThat(window.percentile(50)).isEqualTo(10L);
+        assertThat(window.count()).isEqualTo(104L);
+    }
+
+    @Test
+    void emptyWindowReportsZero() {
+        LatencyWindow window = new LatencyWindow(4);
+
+        assertThat(window.average()).isZero();
+        assertThat(window.percentile(99)).isZero();
+    }
+}
@@ -0,0 +1,158 @@
+package com.jobautofill.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResumePreExtractorTest {
+
+    @Test
+    void findsNameEmailAndPhoneInTheContactBlock() {
+        ResumePreExtractor.Result result = extract("""
+                JANE DOE
+                jane.doe@example.com | +1 (555) 123-4567
+                linkedin.com/in/janedoe
+
+                Experience
+                Backend Engineer, Acme
+                """);
+
+        assertThat(result.getPersonalInfo().getName()).isEqualTo("Jane Doe");
+        assertThat(result.getPersonalInfo().getEmail()).isEqualTo("jane.doe@example.com");
+        assertThat(result.getPersonalInfo().getPhone()).isEqualTo("+1 (555) 123-4567");
+        assertThat(result.getPersonalInfo().getLinkedin()).isEqualTo("linkedin.com/in/janedoe");
+        assertThat(result.hasPersonalInfo()).isTrue();
+    }
+
+    @Test
+    void skipsDocumentTitleAboveTheName() {
+        ResumePreExtractor.Result result = extract("""
+                Curriculum Vitae
+                Jane Doe
+                jane.doe@example.com
+                """);
+
+        assertThat(result.getPersonalInfo().getName()).isEqualTo("Jane Doe");
+    }
+
+    @Test
+    void rejectsTitleLinesAsName() {
+        assertThat(extract("""
+                Curriculum Vitae
+                jane.doe@example.com
+                """).getPersonalInfo().getName()).isNull();
+        assertThat(extract("""
+                Senior Software Engineer
+                jane.doe@example.com
+                """).getPersonalInfo().getName()).isNull();
+    }
+
+    @Test
+    void rejectsNameFarFromContactDetails() {
+        ResumePreExtractor.Result result = extract("""
+                Jane Doe
+                Builds reliable backend systems
+                Based in Berlin, open to relocation
+                Available from March
+                jane.doe@example.com
+                """);
+
+        assertThat(result.getPersonalInfo().getName()).isNull();
+        assertThat(result.hasPersonalInfo()).isFalse();
+    }
+
+    @Test
+    void keepsContactForTheLlmWhenSeveralEmailsOrPhonesAreListed() {
+        ResumePreExtractor.Result result = extract("""
+                Jane Doe
+                jane.doe@example.com, jane@work.example.com
+                +1 555 123 4567
+                """);
+
+        assertThat(result.getPersonalInfo().getName()).isEqualTo("Jane Doe");
+        assertThat(result.hasPersonalInfo()).isFalse();
+
+        result = extract("""
+                Jane Doe
+                jane.doe@example.com
+                Mobile +1 555 123 4567, Office +1 555 765 4321
+                """);
+        assertThat(result.hasPersonalInfo()).isFalse();
+    }
+
+    @Test
+    void onlyUnambiguousValuesMayOverrideTheLlm() {
+        ResumePreExtractor.Result result = extract("""
+                Jane Doe
+                jane.doe@example.com, jane@work.example.com
+                +1 555 123 4567
+                Experience
+                Backend Engineer, Acme
+                """);
+
+        assertThat(result.getPersonalInfo().getEmail()).isEqualTo("jane.doe@example.com");
+        assertThat(result.getUnambiguousPersonalInfo().getEmail()).isNull();
+        assertThat(result.getUnambiguousPersonalInfo().getPhone()).isEqualTo("+1 555 123 4567");
+
+        // An email found only outside the contact block, here a reference's, is a guess
+        result = extract("""
+                Jane Doe
+                +1 555 123 4567
+                Experience
+                Backend Engineer, Acme
+                References
+                Bob Smith, bob@acme.example.com
+                """);
+        assertThat(result.getPersonalInfo().getEmail()).isEqualTo("bob@acme.example.com");
+        assertThat(result.getUnambiguousPersonalInfo().getEmail()).isNull();
+    }
+
+    @Test
+    void phoneRejectsDatesAndShortNumbers() {
+        assertThat(extract("""
+                Jane Doe
+                jane.doe@example.com
+                2019 - 2023
+                Zip 10115
+                """).getPersonalInfo().getPhone()).isNull();
+        assertThat(extract("""
+                Jane Doe
+                jane.doe@example.com
+                Order 1234567890123456789
+                """).getPersonalInfo().getPhone()).isNull();
+    }
+
+    @Test
+    void emailRejectsHandlesWithoutDomain() {
+        ResumePreExtractor.Result result = extract("""
+                Jane Doe
+                @janedoe on Twitter, jane at example dot com
+                """);
+
+        assertThat(result.getPersonalInfo().getEmail()).isNull();
+        assertThat(result.getPersonalInfo().getName()).isNull();
+    }
+
+    @Test
+    void parsesSkillListsButNotProse() {
+        assertThat(extract("""
+                Jane Doe
+                jane.doe@example.com
+
+                Skills
+                Languages: Java, Python, SQL
+                - Spring Boot
+                """).getSkills()).containsExactly("Java", "Python", "SQL", "Spring Boot");
+        assertThat(extract("""
+                Jane Doe
+                jane.doe@example.com
+
+                Skills
+                I am comfortable working with many different modern programming languages and frameworks.
+                """).hasSkills()).isFalse();
+    }
+
+    private static ResumePreExtractor.Result extract(String text) {
+        return ResumePreExtractor.extract(text, ResumeSectionSplitter.split(text));
+    }
+}
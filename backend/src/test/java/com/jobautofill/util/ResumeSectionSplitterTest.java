@@ -0,0 +1,43 @@
+package com.jobautofill.util;
+
+import com.jobautofill.util.ResumeSectionSplitter.Section;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResumeSectionSplitterTest {
+
+    @Test
+    void spokenLanguagesStayOutOfTheSkills() {
+        Map<Section, String> sections = ResumeSectionSplitter.split("""
+                Jane Doe
+                jane@example.com
+                SKILLS
+                Java, Spring, SQL
+                Languages
+                English, German
+                EDUCATION
+                B.Sc. Computer Science, TU Berlin
+                """);
+
+        assertThat(sections.get(Section.SKILLS)).isEqualTo("Java, Spring, SQL\n");
+        assertThat(sections.get(Section.EDUCATION)).isEqualTo("B.Sc. Computer Science, TU Berlin\n");
+        assertThat(sections).doesNotContainKey(Section.OTHER);
+    }
+
+    @Test
+    void programmingLanguagesAreSkills() {
+        Map<Section, String> sections = ResumeSectionSplitter.split("""
+                Jane Doe
+                Programming Languages:
+                Java, Python, Go
+                Work Experience
+                Backend Engineer, Acme (2020 - 2023)
+                """);
+
+        assertThat(sections.get(Section.SKILLS)).isEqualTo("Java, Python, Go\n");
+        assertThat(sections.get(Section.EXPERIENCE)).isEqualTo("Backend Engineer, Acme (2020 - 2023)\n");
+    }
+}
@@ -70,7 +70,7 @@ function initModelSelection() {
     if (refreshModelsBtn) {
         refreshModelsBtn.addEventListener('click', (event) => {
             event.preventDefault();
-            loadOllamaModels({ silent: false });
+            loadOllamaModels({ silent: false, refresh: true });
         });
     }
 
@@ -92,7 +92,7 @@ function initModelSelection() {
     loadOllamaModels({ silent: true });
 }
 
-async function loadOllamaModels({ silent = false } = {}) {
+async function loadOllamaModels({ silent = false, refresh = false } = {}) {
     if (!modelSelect) return;
 
     modelSelect.disabled = true;
@@ -101,7 +101,8 @@ async function loadOllamaModels({ silent = false } = {}) {
     }
 
     try {
-        const response = await fetch(`${BACKEND_URL}/api/ollama/models`, {
+        // The backend answers from its model catalogue; refresh re-reads it from Ollama
+        const response = await fetch(`${BACKEND_URL}/api/ollama/models${refresh ? '?refresh=true' : ''}`, {
             signal: AbortSignal.timeout(5000)
         });
 
@@ -133,6 +134,9 @@ async function loadOllamaModels({ silent = false } = {}) {
             if (model.family) {
                 labelSegments.push(`• ${model.family}`);
             }
+            if (model.quantizationLevel) {
+                labelSegments.push(model.quantizationLevel);
+            }
             if (model.sizeBytes && model.sizeBytes > 0) {
                 labelSegments.push(`(${formatBytes(model.sizeBytes)})`);
             }
@@ -308,6 +312,23 @@ async function checkResumeStatus() {
             const data = await response.json();
             if (data.success && data.structured_resume) {
                 updateUIWithResumeData(data.structured_resume);
+                // A heuristic resume is replaced once the LLM extraction finishes
+                if (data.origin !== 'HEURISTIC') {
+                    return;
+                }
+            }
+        }
+
+        // The popup may have been closed while an extraction was running; pick it up again
+        const jobId = await getPersistedExtractionJob();
+        if (jobId) {
+            uploadBtn.disabled = true;
+            uploadBtn.textContent = 'Extracting...';
+            try {
+                await followExtractionJob(jobId);
+            } finally {
+                uploadBtn.disabled = false;
+                uploadBtn.textContent = 'Upload & Extract';
             }
         }
     } catch (error) {
@@ -336,9 +357,17 @@ async function handleUpload() {
 
         if (!uploadResponse.ok) throw new Error('Upload failed');
 
-        showMessage(uploadStatus, 'Extracting with AI... (10-15s)', 'info');
+        // The backend answers with a rule-based resume right away, so autofill of contact
+        // details works while the AI extraction runs
+        const uploadData = await uploadResponse.json();
+        if (uploadData.structured_resume) {
+            updateUIWithResumeData(uploadData.structured_resume);
+        }
+
+        showMessage(uploadStatus, 'Contact details ready. Extracting the rest with AI...', 'info');
         uploadBtn.textContent = 'Extracting...';
 
+        // Extraction runs as a background job on the backend, so closing the popup does not lose it
         const extractResponse = await fetch(`${BACKEND_URL}/api/extract`, {
             method: 'POST'
         });
@@ -346,9 +375,9 @@ async function handleUpload() {
         if (!extractResponse.ok) throw new Error('Extraction failed');
 
         const extractData = await extractResponse.json();
-        if (extractData.success) {
-            showMessage(uploadStatus, '✓ Resume uploaded and analyzed!', 'success');
-            updateUIWithResumeData(extractData.structured_resume);
+        if (extractData.success && extractData.job_id) {
+            await persistExtractionJob(extractData.job_id);
+            await followExtractionJob(extractData.job_id);
         }
     } catch (error) {
         showMessage(uploadStatus, `Error: ${error.message}`, 'error');
@@ -358,6 +387,92 @@ async function handleUpload() {
     }
 }
 
+/**
+ * Follows an extraction job until it finishes, via its event stream, falling back to
+ * polling if the stream cannot be opened. Loads the extracted resume on success.
+ */
+async function followExtractionJob(jobId) {
+    const job = await new Promise((resolve) => {
+        let settled = false;
+        const finish = (status) => {
+            if (!settled) {
+                settled = true;
+                resolve(status);
+            }
+        };
+
+        const events = new EventSource(`${BACKEND_URL}/api/extract/jobs/${jobId}/events`);
+        events.onmessage = (event) => {
+            const status = JSON.parse(event.data);
+            if (status.state === 'RUNNING') {
+                const seconds = Math.round((status.elapsed_ms || 0) / 1000);
+                const prompts = status.prompts_total
+                    ? `, ${status.prompts_answered}/${status.prompts_total} prompts`
+                    : '';
+                showMessage(uploadStatus, `Extracting with AI... (${seconds}s${prompts})`, 'info');
+            } else {
+                events.close();
+                finish(status);
+            }
+        };
+        events.onerror = () => {
+            events.close();
+            pollExtractionJob(jobId).then(finish);
+        };
+    });
+
+    await clearPersistedExtractionJob();
+    if (!job || job.state !== 'SUCCEEDED') {
+        showMessage(uploadStatus, `Error: ${(job && job.error) || 'Extraction failed'}`, 'error');
+        return;
+    }
+
+    const response = await fetch(`${BACKEND_URL}/api/extract/current`);
+    const data = await response.json();
+    if (data.success && data.structured_resume) {
+        showMessage(uploadStatus, '✓ Resume uploaded and analyzed!', 'success');
+        updateUIWithResumeData(data.structured_resume);
+    }
+}
+
+async function pollExtractionJob(jobId) {
+    while (true) {
+        try {
+            const response = await fetch(`${BACKEND_URL}/api/extract/jobs/${jobId}`);
+            if (!response.ok) {
+                return null;
+            }
+            const data = await response.json();
+            if (data.job && data.job.state !== 'RUNNING') {
+                return data.job;
+            }
+        } catch (error) {
+            return null;
+        }
+        await new Promise(resolve => setTimeout(resolve, 2000));
+    }
+}
+
+function getPersistedExtractionJob() {
+    return new Promise(resolve => {
+        chrome.storage.local.get(['extractionJobId'], result => {
+            resolve(result.extractionJobId || null);
+        });
+    });
+}
+
+function persistExtractionJob(jobId) {
+    return new Promise(resolve => {
+        chrome.storage.local.set({ extractionJobId: jobId }, resolve);
+    });
+}
+
+function clearPersistedExtractionJob() {
+    return new Promise(resolve => {
+        chrome.storage.local.remove('extractionJobId', resolve);
+    });
+}
+
 function updateUIWithResumeData(resumeData) {
     statusIndicator.classList.add('success');
     statusText.textContent = '✓ Resume loaded and ready';